@@ -0,0 +1,208 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.openliberty.guides.inventory.client.SystemClient;
+import io.openliberty.guides.inventory.client.SystemClientCache;
+import io.openliberty.guides.inventory.models.SystemData;
+import io.openliberty.guides.inventory.models.SystemSnapshot;
+
+/**
+ * Refreshes every host through InventoryAsyncTask against an in-process
+ * SystemClient that answers after a fixed latency. Compares a fixed pool of
+ * platform threads with one virtual thread per task. The throughput mode
+ * reports complete refreshes per second and the sample mode reports the
+ * p99 of a complete refresh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger("io.openliberty.guides.inventory");
+
+    @Param({ "1000", "5000", "10000" })
+    int hosts;
+
+    @Param({ "10" })
+    long latency;
+
+    @Param({ "platform", "virtual" })
+    String threads;
+
+    @Param({ "200" })
+    int platformThreads;
+
+    private StubExecutor executor;
+    private InventoryAsyncTask task;
+    private List<SystemData> systems;
+
+    @Setup
+    public void setup() throws Exception {
+        LOGGER.setLevel(Level.WARNING);
+        executor = "virtual".equals(threads)
+            ? StubExecutor.virtual()
+            : StubExecutor.platform(platformThreads);
+        task = new InventoryAsyncTask();
+        task.managedExecutor = executor;
+        task.registration = new Bulkhead("registration", executor, hosts, hosts);
+        task.refresh = new Bulkhead("refresh", executor, hosts, hosts);
+        task.sampling = new Bulkhead("sampling", executor, hosts, hosts);
+        task.wheel = new TimingWheel(executor, 100, 512, 256);
+        task.wheel.start();
+        task.callTimeout = TimeUnit.MINUTES.toMillis(1);
+        task.operationTimeout = TimeUnit.MINUTES.toMillis(1);
+        task.clients = new StubClientCache(new StubSystemClient(latency));
+        task.metrics = new StubMetrics();
+        task.history = new SystemHistory();
+        task.history.capacity = 720;
+        task.events = new SystemEvents();
+        task.hedger = new RequestHedger();
+        task.health = new HostHealth();
+        task.limiter = new HostLimiter();
+        task.limiter.initialLimit = 4;
+        task.limiter.minLimit = 1;
+        task.limiter.maxLimit = 32;
+        task.limiter.maxQueue = 50;
+        task.limiter.queueTimeout = TimeUnit.MINUTES.toMillis(1);
+        task.limiter.latencyThreshold = TimeUnit.SECONDS.toMillis(2);
+        task.limiter.backoffRatio = 0.9;
+        task.manager = InventoryManagerBenchmark.manager();
+        systems = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            systems.add(InventoryManagerBenchmark.system("host-" + i));
+            task.history.add("host-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        task.wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void refreshAll() {
+        CompletableFuture<?>[] refreshes = new CompletableFuture<?>[systems.size()];
+        for (int i = 0; i < refreshes.length; i++) {
+            refreshes[i] = task.refreshSystemUsage(systems.get(i), 0);
+        }
+        CompletableFuture.allOf(refreshes).join();
+    }
+
+    static class StubSystemClient implements SystemClient {
+
+        private final long latency;
+
+        StubSystemClient(long latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public String getProperty(String property) {
+            pause();
+            return System.getProperty(property);
+        }
+
+        @Override
+        public Long getHeapSize() {
+            pause();
+            return 1L << 30;
+        }
+
+        @Override
+        public Double getSystemLoad() {
+            pause();
+            return 0.5;
+        }
+
+        @Override
+        public Long getMemoryUsed() {
+            pause();
+            return 1L << 28;
+        }
+
+        @Override
+        public SystemSnapshot getSnapshot() {
+            pause();
+            return new SystemSnapshot("Linux", "21", 1L << 30, 1L << 28, 0.5);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static class StubClientCache extends SystemClientCache {
+
+        private final SystemClient client;
+
+        StubClientCache(SystemClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public <T> T call(String hostname, Function<SystemClient, T> request) {
+            return request.apply(client);
+        }
+    }
+
+    static class StubMetrics extends SystemCallMetrics {
+
+        @Override
+        public <T> T time(String operation, String hostname, Callable<T> call)
+            throws Exception {
+            return call.call();
+        }
+
+        @Override
+        public void timedOut(String operation, String hostname) {
+        }
+
+        @Override
+        public void forget(String hostname) {
+        }
+    }
+}
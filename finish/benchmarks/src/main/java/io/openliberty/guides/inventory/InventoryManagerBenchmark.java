@@ -0,0 +1,134 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryManagerBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int hosts;
+
+    private InventoryManager manager;
+    private long added;
+
+    @Setup
+    public void setup() throws Exception {
+        manager = manager();
+        for (int i = 0; i < hosts; i++) {
+            manager.add(system("Host-" + i));
+        }
+    }
+
+    @Benchmark
+    public SystemData getSystem() {
+        return manager.getSystem("host-" + ThreadLocalRandom.current().nextInt(hosts));
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        String hostname = "added-" + added++;
+        manager.add(system(hostname));
+        return manager.removeSystem(hostname);
+    }
+
+    @Benchmark
+    public int getSystems() {
+        return manager.getSystems().size();
+    }
+
+    @Benchmark
+    public int listPage() {
+        String after = "host-" + ThreadLocalRandom.current().nextInt(hosts);
+        int count = 0;
+        for (SystemData s : manager.getSystemsAfter(after)) {
+            if (++count == 100) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    // Creates a manager whose persistence calls return null, which the
+    // manager tolerates, and whose transactions commit at once. It has no
+    // event subscribers, so publishing an event is a single check.
+    static InventoryManager manager() throws Exception {
+        InventoryManager manager = new InventoryManager();
+        EntityManager em = (EntityManager) Proxy.newProxyInstance(
+            EntityManager.class.getClassLoader(),
+            new Class<?>[] { EntityManager.class },
+            (proxy, method, args) -> null);
+        TransactionSynchronizationRegistry transactions =
+            (TransactionSynchronizationRegistry) Proxy.newProxyInstance(
+                TransactionSynchronizationRegistry.class.getClassLoader(),
+                new Class<?>[] { TransactionSynchronizationRegistry.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("registerInterposedSynchronization")) {
+                        Synchronization sync = (Synchronization) args[0];
+                        sync.beforeCompletion();
+                        sync.afterCompletion(Status.STATUS_COMMITTED);
+                    }
+                    return null;
+                });
+        ChangeLog changes = new ChangeLog();
+        changes.capacity = 10000;
+        changes.init();
+        SystemHistory history = new SystemHistory();
+        history.capacity = 720;
+        set(manager, "em", em);
+        set(manager, "transactions", transactions);
+        set(manager, "events", new SystemEvents());
+        set(manager, "changes", changes);
+        set(manager, "health", new HostHealth());
+        set(manager, "history", history);
+        set(manager, "metrics", new FanOutBenchmark.StubMetrics());
+        return manager;
+    }
+
+    private static void set(InventoryManager manager, String name, Object value)
+        throws Exception {
+        Field field = InventoryManager.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(manager, value);
+    }
+
+    static SystemData system(String hostname) {
+        return new SystemData(hostname, "Linux", "21", 1L << 30);
+    }
+}
@@ -0,0 +1,346 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.concurrent.ContextService;
+import jakarta.enterprise.concurrent.LastExecution;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.concurrent.Trigger;
+
+/**
+ * A stand-in for the Liberty managed executor. Delayed tasks wait on a
+ * single timer thread and then run on the worker pool, which is either a
+ * fixed pool of platform threads or one virtual thread per task.
+ */
+public class StubExecutor extends AbstractExecutorService
+                          implements ManagedScheduledExecutorService {
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer =
+        Executors.newSingleThreadScheduledExecutor();
+
+    private StubExecutor(ExecutorService workers) {
+        this.workers = workers;
+    }
+
+    public static StubExecutor platform(int threads) {
+        return new StubExecutor(Executors.newFixedThreadPool(threads));
+    }
+
+    public static StubExecutor virtual() {
+        return new StubExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        workers.execute(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay,
+                                           TimeUnit unit) {
+        DelayedTask<V> task = new DelayedTask<>(callable);
+        task.start(delay, unit);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                  long period, TimeUnit unit) {
+        return timer.scheduleAtFixedRate(() -> workers.execute(command),
+                                         initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                     long delay, TimeUnit unit) {
+        return timer.scheduleWithFixedDelay(() -> workers.execute(command),
+                                            initialDelay, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, Trigger trigger) {
+        return schedule(Executors.callable(command), trigger);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, Trigger trigger) {
+        TriggerTask<V> task = new TriggerTask<>(callable, trigger);
+        task.next();
+        return task;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> completedFuture(U value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    @Override
+    public <U> CompletionStage<U> completedStage(U value) {
+        return CompletableFuture.completedStage(value);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> copy(CompletableFuture<T> stage) {
+        return stage.copy();
+    }
+
+    @Override
+    public <T> CompletionStage<T> copy(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().copy();
+    }
+
+    @Override
+    public <U> CompletableFuture<U> failedFuture(Throwable ex) {
+        return CompletableFuture.failedFuture(ex);
+    }
+
+    @Override
+    public <U> CompletionStage<U> failedStage(Throwable ex) {
+        return CompletableFuture.failedStage(ex);
+    }
+
+    // There is no context to propagate, so every contextual object is the
+    // given one and the context executor runs tasks in place.
+    @Override
+    public ContextService getContextService() {
+        return (ContextService) Proxy.newProxyInstance(
+            ContextService.class.getClassLoader(),
+            new Class<?>[] { ContextService.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "currentContextExecutor" -> (Executor) Runnable::run;
+                case "getExecutionProperties" -> Map.of();
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "ContextService";
+                default -> args[0];
+            });
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, this);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    @Override
+    public void shutdown() {
+        timer.shutdown();
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        timer.shutdownNow();
+        return workers.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return workers.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return timer.isTerminated() && workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return timer.awaitTermination(timeout, unit)
+               && workers.awaitTermination(timeout, unit);
+    }
+
+    // waits on the timer and then runs on the workers
+    private class DelayedTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+        private volatile ScheduledFuture<?> wait;
+
+        DelayedTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        void start(long delay, TimeUnit unit) {
+            wait = timer.schedule(() -> workers.execute(this), delay, unit);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return wait.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS),
+                                other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            wait.cancel(false);
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    // Runs the task whenever the trigger asks for it, and completes with the
+    // last result once the trigger returns no next run time. A failed run
+    // ends the schedule.
+    private class TriggerTask<V> extends CompletableFuture<V>
+                                 implements ScheduledFuture<V> {
+
+        private final Callable<V> callable;
+        private final Trigger trigger;
+        private final Date scheduled = new Date();
+
+        private volatile Execution last;
+        private volatile Date nextRun;
+        private volatile ScheduledFuture<?> wait;
+
+        TriggerTask(Callable<V> callable, Trigger trigger) {
+            this.callable = callable;
+            this.trigger = trigger;
+        }
+
+        @SuppressWarnings("unchecked")
+        void next() {
+            Date at = trigger.getNextRunTime(last, scheduled);
+            if (at == null) {
+                complete(last == null ? null : (V) last.result());
+                return;
+            }
+            nextRun = at;
+            long delay = Math.max(0, at.getTime() - System.currentTimeMillis());
+            wait = timer.schedule(() -> workers.execute(this::run),
+                                  delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void run() {
+            if (isDone()) {
+                return;
+            }
+            if (trigger.skipRun(last, nextRun)) {
+                next();
+                return;
+            }
+            Date start = new Date();
+            try {
+                V result = callable.call();
+                last = new Execution(nextRun, start, new Date(), result);
+                next();
+            } catch (Exception e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            Date at = nextRun;
+            return at == null ? 0
+                : unit.convert(Duration.ofMillis(at.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS),
+                                other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            ScheduledFuture<?> w = wait;
+            if (w != null) {
+                w.cancel(false);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    private record Execution(Date scheduledStart, Date runStart, Date runEnd,
+                             Object result) implements LastExecution {
+
+        @Override
+        public String getIdentityName() {
+            return null;
+        }
+
+        @Override
+        public Object getResult() {
+            return result;
+        }
+
+        @Override
+        public Date getScheduledStart() {
+            return scheduledStart;
+        }
+
+        @Override
+        public ZonedDateTime getScheduledStart(ZoneId zone) {
+            return scheduledStart.toInstant().atZone(zone);
+        }
+
+        @Override
+        public Date getRunStart() {
+            return runStart;
+        }
+
+        @Override
+        public ZonedDateTime getRunStart(ZoneId zone) {
+            return runStart.toInstant().atZone(zone);
+        }
+
+        @Override
+        public Date getRunEnd() {
+            return runEnd;
+        }
+
+        @Override
+        public ZonedDateTime getRunEnd(ZoneId zone) {
+            return runEnd.toInstant().atZone(zone);
+        }
+    }
+}
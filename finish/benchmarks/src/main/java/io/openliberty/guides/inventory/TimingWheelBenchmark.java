@@ -0,0 +1,89 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Schedules and then cancels one delayed refresh per host, as a refresh
+ * that times out does, through the timing wheel and through the delay queue
+ * of a scheduled executor. Run it with -prof gc to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final Runnable NOTHING = () -> { };
+
+    @Param({ "10000", "50000" })
+    int hosts;
+
+    private ScheduledThreadPoolExecutor executor;
+    private TimingWheel wheel;
+
+    @Setup
+    public void setup() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        wheel = new TimingWheel(executor, 100, 512, 256);
+        wheel.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int timingWheel() {
+        TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[hosts];
+        for (int i = 0; i < hosts; i++) {
+            timeouts[i] = wheel.schedule(NOTHING, 60, TimeUnit.SECONDS);
+        }
+        for (TimingWheel.Timeout t : timeouts) {
+            t.cancel();
+        }
+        return wheel.getPending();
+    }
+
+    @Benchmark
+    public int delayQueue() {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[hosts];
+        for (int i = 0; i < hosts; i++) {
+            futures[i] = executor.schedule(NOTHING, 60, TimeUnit.SECONDS);
+        }
+        for (ScheduledFuture<?> f : futures) {
+            f.cancel(false);
+        }
+        return executor.getQueue().size();
+    }
+}
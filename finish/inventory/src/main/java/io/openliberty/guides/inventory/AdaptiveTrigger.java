@@ -0,0 +1,99 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.enterprise.concurrent.LastExecution;
+import jakarta.enterprise.concurrent.ZonedTrigger;
+
+// polls faster while the memory usage or the system load of a system moves
+public class AdaptiveTrigger implements ZonedTrigger {
+
+    private final long minInterval;
+    private final long maxInterval;
+    private final double threshold;
+    private final long firstDelay;
+
+    // guarded by this
+    private long interval;
+    private Double memoryUsage;
+    private Double systemLoad;
+
+    // all times in milliseconds
+    public AdaptiveTrigger(long interval, long minInterval, long maxInterval,
+                           double threshold, long firstDelay) {
+        this.interval = interval;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.threshold = threshold;
+        this.firstDelay = firstDelay;
+    }
+
+    @Override
+    public synchronized ZonedDateTime getNextRunTime(LastExecution lastExecution,
+                                                     ZonedDateTime taskScheduledTime) {
+        if (lastExecution == null) {
+            return taskScheduledTime.plus(firstDelay, ChronoUnit.MILLIS);
+        }
+        // counted from now, because a skipped run keeps the last execution
+        return ZonedDateTime.now(getZoneId()).plus(interval, ChronoUnit.MILLIS);
+    }
+
+    @Override
+    public synchronized boolean skipRun(LastExecution lastExecution,
+                                        ZonedDateTime scheduledRunTime) {
+        if (lastExecution == null
+            || !(lastExecution.getResult() instanceof CompletableFuture<?> refresh)) {
+            return false;
+        }
+        if (!refresh.isDone()) {
+            return true;
+        }
+        // a failed refresh says nothing about the system, so the interval
+        // stays as it is
+        if (!refresh.isCompletedExceptionally()
+            && refresh.getNow(null) instanceof SystemData s) {
+            adapt(s.getMemoryUsage(), s.getSystemLoad());
+        }
+        return false;
+    }
+
+    public synchronized long getInterval() {
+        return interval;
+    }
+
+    // halves the interval when a value moved by more than the threshold and
+    // grows it by half otherwise
+    private void adapt(Double memoryUsage, Double systemLoad) {
+        if (this.memoryUsage != null || this.systemLoad != null) {
+            double change = Math.max(change(this.memoryUsage, memoryUsage),
+                                     change(this.systemLoad, systemLoad));
+            interval = change > threshold
+                ? Math.max(minInterval, interval / 2)
+                : Math.min(maxInterval, interval + interval / 2);
+        }
+        this.memoryUsage = memoryUsage;
+        this.systemLoad = systemLoad;
+    }
+
+    // a value that appears or disappears counts as no change
+    private static double change(Double previous, Double current) {
+        if (previous == null || current == null) {
+            return 0;
+        }
+        return Math.abs(current - previous) / Math.max(Math.abs(previous), 1);
+    }
+}
@@ -0,0 +1,113 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Bulkhead implements Executor {
+
+    private final String name;
+    private final Executor executor;
+    private final int maxAsync;
+    private final int maxQueued;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, Executor executor, int maxAsync, int maxQueued) {
+        this.name = name;
+        this.executor = executor;
+        this.maxAsync = maxAsync;
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("The " + name + " queue is full");
+        }
+        queue.offer(task);
+        drain();
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    // Starts queued tasks while there is room. Every change to the queue or
+    // to the running count is followed by a drain, so no task is left behind.
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= maxAsync) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the task may belong to another caller, so it is cancelled
+                // rather than rethrown here
+                running.decrementAndGet();
+                rejected.incrementAndGet();
+                if (task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+}
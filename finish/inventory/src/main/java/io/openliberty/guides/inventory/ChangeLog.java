@@ -0,0 +1,99 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// versions start from the clock, so a restart does not repeat them
+@ApplicationScoped
+public class ChangeLog {
+
+    @Inject
+    @ConfigProperty(name = "inventory.changes.capacity")
+    int capacity;
+
+    // guarded by this
+    private long[] versions;
+    private String[] hostnames;
+    private boolean[] removals;
+    private int next;
+    private int size;
+    private long version;
+    // the changes up to and including this version are no longer known
+    private long floor;
+
+    @PostConstruct
+    public synchronized void init() {
+        versions = new long[capacity];
+        hostnames = new String[capacity];
+        removals = new boolean[capacity];
+        version = System.currentTimeMillis() * 1000;
+        floor = version;
+    }
+
+    // records that the system was added, refreshed, or removed and returns
+    // the version of the change
+    public synchronized long record(String hostname, boolean removed) {
+        version++;
+        if (size == capacity) {
+            floor = versions[next];
+        } else {
+            size++;
+        }
+        versions[next] = version;
+        hostnames[next] = hostname;
+        removals[next] = removed;
+        next = (next + 1) % capacity;
+        return version;
+    }
+
+    // forgets every change, for example when the inventory is reloaded
+    public synchronized long reset() {
+        version++;
+        floor = version;
+        next = 0;
+        size = 0;
+        Arrays.fill(hostnames, null);
+        return version;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Returns the changes after the given version, oldest first, or null if
+    // some of them are no longer known and the client must list everything.
+    public synchronized List<Change> since(long since) {
+        if (since < floor || since > version) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (next - size + i + capacity) % capacity;
+            if (versions[slot] > since) {
+                changes.add(new Change(versions[slot], hostnames[slot], removals[slot]));
+            }
+        }
+        return changes;
+    }
+
+    public record Change(long version, String hostname, boolean removed) {
+    }
+}
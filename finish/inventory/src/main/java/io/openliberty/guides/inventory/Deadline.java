@@ -0,0 +1,44 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.concurrent.TimeUnit;
+
+// passed down from an operation so that each call only waits for the
+// remaining time
+public final class Deadline {
+
+    private final long deadline;
+
+    private Deadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    // returns the earlier of this deadline and the given timeout from now
+    public Deadline min(long timeout, TimeUnit unit) {
+        long other = System.nanoTime() + unit.toNanos(timeout);
+        return other - deadline < 0 ? new Deadline(other) : this;
+    }
+
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, deadline - System.nanoTime()),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadline - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,163 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class HostHealth {
+
+    public static final String UP = "up";
+    public static final String DOWN = "down";
+    public static final String PROBING = "probing";
+
+    @Inject
+    @ConfigProperty(name = "inventory.circuit.failureThreshold")
+    int failureThreshold;
+
+    @Inject
+    @ConfigProperty(name = "inventory.circuit.initialBackoff")
+    long initialBackoff;
+
+    @Inject
+    @ConfigProperty(name = "inventory.circuit.maxBackoff")
+    long maxBackoff;
+
+    @Inject
+    MetricRegistry registry;
+
+    // keyed by the lower-cased hostname, only for hosts that failed recently
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        registry.gauge(Metadata.builder()
+                           .withName("inventory.hosts.unhealthy")
+                           .withDescription("Hosts whose circuit is open or being probed")
+                           .build(),
+                       circuits, c -> c.values().stream()
+                                       .filter(circuit -> circuit.state() != UP)
+                                       .count());
+    }
+
+    // Returns the state of the host for a refresh that may go ahead, which is
+    // PROBING for the single probe of an open circuit whose backoff is over,
+    // or null if the refresh must be skipped.
+    public String allow(String hostname) {
+        Circuit circuit = circuits.get(key(hostname));
+        return circuit == null ? UP : circuit.allow();
+    }
+
+    // the following return the new state of the host if it changed, or null
+
+    public String success(String hostname) {
+        Circuit circuit = circuits.remove(key(hostname));
+        return circuit != null && circuit.state() != UP ? UP : null;
+    }
+
+    public String failure(String hostname) {
+        return circuits.computeIfAbsent(key(hostname), k -> new Circuit()).failure();
+    }
+
+    // for a probe that never reached the host, so that the next refresh
+    // probes again
+    public String abandon(String hostname) {
+        Circuit circuit = circuits.get(key(hostname));
+        return circuit == null ? null : circuit.abandon();
+    }
+
+    public String getState(String hostname) {
+        Circuit circuit = circuits.get(key(hostname));
+        return circuit == null ? UP : circuit.state();
+    }
+
+    public void forget(String hostname) {
+        circuits.remove(key(hostname));
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    private class Circuit {
+
+        // guarded by this, and always one of the state constants
+        private int failures;
+        private String state = UP;
+        private long backoff;
+        private long retryAt;
+
+        synchronized String state() {
+            return state;
+        }
+
+        synchronized String allow() {
+            if (state == UP) {
+                return UP;
+            }
+            if (state == DOWN && System.nanoTime() - retryAt >= 0) {
+                state = PROBING;
+                return PROBING;
+            }
+            return null;
+        }
+
+        // keeps the backoff and the retry time, which has already passed
+        synchronized String abandon() {
+            if (state != PROBING) {
+                return null;
+            }
+            state = DOWN;
+            return DOWN;
+        }
+
+        synchronized String failure() {
+            // a call that started before the circuit opened
+            if (state == DOWN) {
+                return null;
+            }
+            if (state == UP && ++failures < failureThreshold) {
+                return null;
+            }
+            backoff = state == UP ? initialBackoff : Math.min(maxBackoff, backoff * 2);
+            long jittered = backoff / 2
+                + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(jittered);
+            state = DOWN;
+            return DOWN;
+        }
+    }
+
+    /**
+     * Thrown instead of calling a host whose circuit is open.
+     */
+    public static class CircuitOpenException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String hostname) {
+            super("Skipped " + hostname + " until its circuit closes", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// limits the calls in flight to each host with additive increase and
+// multiplicative decrease
+@ApplicationScoped
+public class HostLimiter {
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.initialLimit")
+    int initialLimit;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.minLimit")
+    int minLimit;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.maxLimit")
+    int maxLimit;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.maxQueue")
+    int maxQueue;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.queueTimeout")
+    long queueTimeout;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.latencyThreshold")
+    long latencyThreshold;
+
+    @Inject
+    @ConfigProperty(name = "inventory.limiter.backoffRatio")
+    double backoffRatio;
+
+    // keyed by the lower-cased hostname
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public <T> T call(String hostname, Callable<T> call) throws Exception {
+        Limit limit = limits.computeIfAbsent(key(hostname), k -> new Limit(hostname));
+        limit.acquire();
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.DROPPED;
+        try {
+            T result = call.call();
+            long latency = System.nanoTime() - start;
+            outcome = latency <= TimeUnit.MILLISECONDS.toNanos(latencyThreshold)
+                ? Outcome.SUCCEEDED
+                : Outcome.DROPPED;
+            return result;
+        } catch (InterruptedException | CancellationException e) {
+            // cancelled by the caller, which says nothing about the host
+            outcome = Outcome.IGNORED;
+            throw e;
+        } finally {
+            if (Thread.currentThread().isInterrupted()) {
+                outcome = Outcome.IGNORED;
+            }
+            limit.release(outcome);
+        }
+    }
+
+    public List<Status> getStatus() {
+        List<Status> status = new ArrayList<>();
+        for (Limit limit : limits.values()) {
+            status.add(limit.status());
+        }
+        return status;
+    }
+
+    public void forget(String hostname) {
+        limits.remove(key(hostname));
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    public record Status(String hostname, int limit, int inFlight, int queued) {
+    }
+
+    private enum Outcome {
+        SUCCEEDED, DROPPED, IGNORED
+    }
+
+    private class Limit {
+
+        private final String hostname;
+        // a lock rather than a monitor, so that waiting virtual threads
+        // release their carrier threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        // guarded by lock
+        private double limit = initialLimit;
+        private int inFlight;
+        private int queued;
+
+        Limit(String hostname) {
+            this.hostname = hostname;
+        }
+
+        void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                // calls that arrive while others wait go to the back of the queue
+                if (queued == 0 && inFlight < (int) limit) {
+                    inFlight++;
+                    return;
+                }
+                if (queued >= maxQueue) {
+                    throw new LimitExceededException(hostname, "the queue is full");
+                }
+                queued++;
+                try {
+                    long nanos = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+                    while (inFlight >= (int) limit) {
+                        if (nanos <= 0) {
+                            throw new LimitExceededException(hostname,
+                                "no call finished in time");
+                        }
+                        nanos = available.awaitNanos(nanos);
+                    }
+                    inFlight++;
+                } finally {
+                    queued--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Outcome outcome) {
+            lock.lock();
+            try {
+                boolean inUse = inFlight >= limit / 2;
+                inFlight--;
+                if (outcome == Outcome.SUCCEEDED && inUse) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                } else if (outcome == Outcome.DROPPED) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Status status() {
+            lock.lock();
+            try {
+                return new Status(hostname, (int) limit, inFlight, queued);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Thrown instead of calling a host that already has as many calls in
+     * flight and queued as it can take.
+     */
+    public static class LimitExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException(String hostname, String reason) {
+            super("Rejected a call to " + hostname + " because " + reason,
+                  null, false, false);
+        }
+    }
+}
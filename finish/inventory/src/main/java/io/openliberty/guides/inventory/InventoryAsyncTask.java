@@ -11,220 +11,745 @@
 // end::copyright[]
 package io.openliberty.guides.inventory;
 
-import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
 
 import io.openliberty.guides.inventory.client.SystemClient;
-import io.openliberty.guides.inventory.client.UnknownUriExceptionMapper;
+import io.openliberty.guides.inventory.client.SystemClientCache;
 import io.openliberty.guides.inventory.models.SystemData;
+import io.openliberty.guides.inventory.models.SystemSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
-import jakarta.enterprise.concurrent.Asynchronous;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorDefinition;
 import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+// tag::executorDefinitions[]
+@ManagedScheduledExecutorDefinition(
+    name = InventoryAsyncTask.VIRTUAL_EXECUTOR,
+    virtual = true)
+@ManagedScheduledExecutorDefinition(
+    name = InventoryAsyncTask.PLATFORM_EXECUTOR)
+// end::executorDefinitions[]
 @ApplicationScoped
 public class InventoryAsyncTask {
 
+    static final String VIRTUAL_EXECUTOR = "java:module/concurrent/virtualExecutor";
+    static final String PLATFORM_EXECUTOR = "java:module/concurrent/platformExecutor";
+
     private static Logger logger = Logger.getLogger(InventoryAsyncTask.class.getName());
 
+    // tag::clients[]
+    @Inject
+    SystemClientCache clients;
+    // end::clients[]
+
+    @Inject
+    @ConfigProperty(name = "inventory.executor.virtual")
+    boolean virtualThreads;
+
+    // milliseconds that one remote call may take once it is due
+    @Inject
+    @ConfigProperty(name = "inventory.call.timeout")
+    long callTimeout;
+
+    // milliseconds that an operation on one or many systems may take
+    @Inject
+    @ConfigProperty(name = "inventory.operation.timeout")
+    long operationTimeout;
+
+    // The sizes of the bulkheads that keep registrations, refreshes and load
+    // samples from holding each other up. Like every property they can also
+    // be set as variables in server.xml.
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.registration.maxAsync")
+    int registrationMaxAsync;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.registration.maxQueued")
+    int registrationMaxQueued;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.refresh.maxAsync")
+    int refreshMaxAsync;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.refresh.maxQueued")
+    int refreshMaxQueued;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.sampling.maxAsync")
+    int samplingMaxAsync;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulkhead.sampling.maxQueued")
+    int samplingMaxQueued;
+
+    // the delayed calls are held in a timing wheel with ticks of this many
+    // milliseconds, and handed to their bulkheads in batches of this size
+    @Inject
+    @ConfigProperty(name = "inventory.wheel.tickDuration")
+    long wheelTickDuration;
+
+    @Inject
+    @ConfigProperty(name = "inventory.wheel.size")
+    int wheelSize;
+
+    @Inject
+    @ConfigProperty(name = "inventory.wheel.batchSize")
+    int wheelBatchSize;
+
+    @Resource(lookup = VIRTUAL_EXECUTOR)
+    ManagedScheduledExecutorService virtualExecutor;
+
+    @Resource(lookup = PLATFORM_EXECUTOR)
+    ManagedScheduledExecutorService platformExecutor;
+
+    @Inject
+    SystemCallMetrics metrics;
+
+    @Inject
+    InventoryManager manager;
+
+    @Inject
+    SystemHistory history;
+
+    @Inject
+    SystemEvents events;
+
+    @Inject
+    RequestHedger hedger;
+
+    @Inject
+    HostHealth health;
+
     @Inject
-    @ConfigProperty(name = "client.http.port")
-    String CLIENT_PORT;
+    HostLimiter limiter;
 
     // tag::managedExecutor[]
-    @Resource
     ManagedScheduledExecutorService managedExecutor;
     // end::managedExecutor[]
 
+    // Each workload gets its own bounds on the shared managedExecutor, so
+    // that the inventory.executor.virtual choice applies to all of them.
+    // Every call, its hedged copy and the workers of a bulk registration
+    // take their place in the bulkhead of their workload.
+    Bulkhead registration;
+    Bulkhead refresh;
+    Bulkhead sampling;
+
+    TimingWheel wheel;
+
+    // pending or running fetches keyed by metric and lower-cased hostname
+    private final Map<String, Shared<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        managedExecutor = virtualThreads ? virtualExecutor : platformExecutor;
+        registration = new Bulkhead("registration", managedExecutor,
+                                    registrationMaxAsync, registrationMaxQueued);
+        refresh = new Bulkhead("refresh", managedExecutor,
+                               refreshMaxAsync, refreshMaxQueued);
+        sampling = new Bulkhead("sampling", managedExecutor,
+                                samplingMaxAsync, samplingMaxQueued);
+        wheel = new TimingWheel(managedExecutor, wheelTickDuration,
+                                wheelSize, wheelBatchSize);
+        wheel.start();
+        logger.info("Using " + (virtualThreads ? "virtual" : "platform")
+                    + " threads for system requests");
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
     // tag::getClientData[]
     public SystemData getClientData(String hostname) {
+        // tag::submitTask[]
+        Tracked<SystemSnapshot> task = tracked(() -> {
+            // tag::snapshot[]
+            SystemSnapshot snapshot = call("getClientData", hostname, registration,
+                                           SystemClient::getSnapshot);
+            // end::snapshot[]
+            logger.info("Got snapshot from " + hostname + ": "
+                        + snapshot.getOsName() + ", "
+                        + snapshot.getJavaVersion() + ", "
+                        + snapshot.getHeapSize());
+            return snapshot;
+        });
+        // end::submitTask[]
+        Future<SystemSnapshot> snapshotFuture;
+        try {
+            // tag::submit[]
+            snapshotFuture = registration.submit(task);
+            // end::submit[]
+        } catch (RejectedExecutionException e) {
+            task.cancelled();
+            logger.warning("Too many registrations to get data from " + hostname);
+            return null;
+        }
         try {
-            // tag::submit1[]
-            Future<String> osNameFuture = managedExecutor.submit(
-            // end::submit1[]
-            // tag::submitTask1[]
-                () -> {
-                    // tag::getSystemClient1[]
-                    SystemClient client = getSystemClient(hostname);
-                    // end::getSystemClient1[]
-                    // tag::osName[]
-                    String osName = client.getProperty("os.name");
-                    // end::osName[]
-                    client.close();
-                    logger.info("Got OS name from " + hostname + ": " + osName);
-                    return osName;
-                });
-            // end::submitTask1[]
-            // tag::submit2[]
-            Future<String> javaVerFuture = managedExecutor.submit(
-            // end::submit2[]
-                // tag::submitTask2[]
-                () -> {
-                    // tag::getSystemClient2[]
-                    SystemClient client = getSystemClient(hostname);
-                    // end::getSystemClient2[]
-                    // tag::javaVer[]
-                    String javaVer = client.getProperty("java.version");
-                    // end::javaVer[]
-                    client.close();
-                    logger.info("Got Java version from " + hostname + ": " + javaVer);
-                    return javaVer;
-                });
-                // end::submitTask2[]
-            // tag::submit3[]
-            Future<Long> heapSizeFuture = managedExecutor.submit(
-            // end::submit3[]
-                // tag::submitTask3[]
-                () -> {
-                    // tag::getSystemClient3[]
-                    SystemClient client = getSystemClient(hostname);
-                    // end::getSystemClient3[]
-                    // tag::heapSize[]
-                    Long heapSize = client.getHeapSize();
-                    // end::heapSize[]
-                    client.close();
-                    logger.info("Got heap size from " + hostname + ": "  + heapSize);
-                    return heapSize;
-                });
-                // end::submitTask3[]
             // tag::get[]
+            SystemSnapshot snapshot = snapshotFuture.get(callTimeout, TimeUnit.MILLISECONDS);
             return new SystemData(hostname,
-                        osNameFuture.get(),
-                        javaVerFuture.get(),
-                        heapSizeFuture.get());
+                        snapshot.getOsName(),
+                        snapshot.getJavaVersion(),
+                        snapshot.getHeapSize());
             // end::get[]
+        } catch (TimeoutException e) {
+            cancel(snapshotFuture, task);
+            metrics.timedOut("getClientData", hostname);
+            logger.warning("Timed out getting data from " + hostname);
+            return null;
+        } catch (InterruptedException e) {
+            cancel(snapshotFuture, task);
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
-            e.printStackTrace();
+            // the bulkhead cancels a task that the executor rejects, and such
+            // a task never starts
+            task.cancelled();
+            logger.log(Level.WARNING, "Failed to get data from " + hostname, e);
             return null;
         }
     }
     // end::getClientData[]
+
+    // Probes the hosts with at most the given number of calls in flight. Each
+    // probe may take the call timeout or what is left of the operation
+    // timeout, whichever is shorter. The hosts that are not probed by the end
+    // of the operation timeout are reported as timed out. Each worker holds a
+    // place in the registration bulkhead for the probes it runs one after
+    // another, and no more workers start once the bulkhead is full.
+    public PartialResult<SystemData> getClientData(List<String> hostnames,
+                                                   int concurrency) {
+        Deadline deadline = newDeadline(0);
+        Queue<String> pending = new ConcurrentLinkedQueue<>(hostnames);
+        PartialResult<SystemData> result = new PartialResult<>();
+        List<Tracked<Void>> tasks = new ArrayList<>();
+        List<Future<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(concurrency, hostnames.size()); i++) {
+            Tracked<Void> task = tracked(() -> {
+                String hostname;
+                while (!deadline.isExpired() && (hostname = pending.poll()) != null) {
+                    try {
+                        result.record(hostname, probe(hostname, deadline), null);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (Exception e) {
+                        logger.log(Level.WARNING, "Failed to get data from " + hostname, e);
+                        result.record(hostname, null, e);
+                    }
+                }
+                return null;
+            });
+            try {
+                workers.add(registration.submit(task));
+            } catch (RejectedExecutionException e) {
+                task.cancelled();
+                logger.warning("Too many registrations to start more than "
+                               + workers.size() + " probe workers");
+                break;
+            }
+            tasks.add(task);
+        }
+        try {
+            for (Future<Void> worker : workers) {
+                worker.get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException | CancellationException e) {
+            logger.warning("Timed out probing " + hostnames.size() + " systems");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Failed to probe systems", e);
+        } finally {
+            for (int i = 0; i < workers.size(); i++) {
+                cancel(workers.get(i), tasks.get(i));
+            }
+        }
+        return result.seal(hostnames);
+    }
+
+    private SystemData probe(String hostname, Deadline deadline) throws Exception {
+        SystemSnapshot snapshot = within("getClientData", hostname,
+            deadline.min(callTimeout, TimeUnit.MILLISECONDS),
+            () -> call("getClientData", hostname, registration,
+                       SystemClient::getSnapshot));
+        return new SystemData(hostname,
+                    snapshot.getOsName(),
+                    snapshot.getJavaVersion(),
+                    snapshot.getHeapSize());
+    }
+
     // tag::updateSystemsUsage[]
     // @Asynchronous(runAt = { @Schedule(cron = "*/15 * * * * *")})
-    public void updateSystemsUsage(List<SystemData> systems, int after) {
+    public void updateSystemsUsage(List<SystemData> systems, int after,
+                                   RefreshJob job) {
+        int started = 0;
         for (SystemData s : systems) {
-            String hostname = s.getHostname();
-            logger.info("Updating " + hostname + "...");
-            managedExecutor.schedule(() -> {
-            SystemClient client = null;
-                try {
-                    client = getSystemClient(hostname);
-                    Long memoryUsed = client.getMemoryUsed();
-                    Double systemLoad = client.getSystemLoad();
-                    s.setMemoryUsed(memoryUsed);
-                    s.setSystemLoad(systemLoad);
-                    logger.info(hostname + " => memoryUsed: " + memoryUsed + ", "
-                                + "systemLoad: " + systemLoad);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                } finally {
-                    closeClient(client);
-                }
-            }, after, TimeUnit.SECONDS);
+            if (job.isCancelled()) {
+                job.skipped(systems.size() - started);
+                break;
+            }
+            started++;
+            logger.info("Updating " + s.getHostname() + "...");
+            refreshSystemUsage(s, after, job);
+        }
+    }
+
+    // Returns the refreshed system, or completes exceptionally if the refresh
+    // failed. The failure is logged already.
+    public CompletableFuture<SystemData> refreshSystemUsage(SystemData s, long after) {
+        return refreshSystemUsage(s, after, null);
+    }
+
+    private CompletableFuture<SystemData> refreshSystemUsage(SystemData s, long after,
+                                                            RefreshJob job) {
+        String hostname = s.getHostname();
+        CompletableFuture<SystemSnapshot> fetch =
+            fetchSnapshot("updateSystemsUsage", hostname, after);
+        if (job != null) {
+            job.track(fetch);
         }
+        return fetch
+            .thenApply(snapshot -> {
+                Long memoryUsed = snapshot.getMemoryUsed();
+                Double systemLoad = snapshot.getSystemLoad();
+                s.setMemoryUsed(memoryUsed);
+                s.setSystemLoad(systemLoad);
+                manager.updated(s);
+                history.recordMemoryUsage(hostname, s.getMemoryUsage());
+                history.recordSystemLoad(hostname, systemLoad);
+                events.updated(hostname, s.getMemoryUsage(), systemLoad);
+                logger.info(hostname + " => memoryUsed: " + memoryUsed + ", "
+                            + "systemLoad: " + systemLoad);
+                return s;
+            })
+            .whenComplete((updated, e) -> {
+                if (e != null) {
+                    logFailure(e);
+                }
+            });
     }
     // end::updateSystemsUsage[]
 
     // tag::updateSystemsMemoryUsed[]
-    // tag::asynchronous1[]
-    @Asynchronous
     // tag::updateSystemsMemoryUsedMethod[]
     // tag::parameters[]
-    public void updateSystemsMemoryUsed(List<SystemData> systems, int after) {
+    public void updateSystemsMemoryUsed(List<SystemData> systems, int after,
+                                        RefreshJob job) {
     // end::parameters[]
-    // end::asynchronous1[]
+        // runs on the selected executor, so that the caller returns at once
+        // tag::asynchronous1[]
+        managedExecutor.runAsync(() -> startMemoryUsedRefreshes(systems, after, job))
+                       .exceptionally(this::logFailure);
+        // end::asynchronous1[]
+    }
+
+    private void startMemoryUsedRefreshes(List<SystemData> systems, int after,
+                                          RefreshJob job) {
+        int started = 0;
         // tag::systems[]
         for (SystemData s : systems) {
         // end::systems[]
+            // the job may be cancelled before every refresh is started
+            if (job.isCancelled()) {
+                job.skipped(systems.size() - started);
+                break;
+            }
+            started++;
             // tag::getHostname[]
             String hostname = s.getHostname();
             // end::getHostname[]
             logger.info("Updating " + hostname + " memory usage...");
             // tag::schedule[]
-            managedExecutor.schedule(() -> {
+            // tag::after[]
+            CompletableFuture<SystemSnapshot> fetch =
+                fetchSnapshot("updateSystemsMemoryUsed", hostname, after);
+            // end::after[]
             // end::schedule[]
-                SystemClient client = null;
-                try {
-                    // tag::getSystemClient4[]
-                    client = getSystemClient(hostname);
-                    // end::getSystemClient4[]
+            job.track(fetch);
+            fetch
+                .thenAccept(snapshot -> {
                     // tag::getMemoryUsed[]
-                    Long memoryUsed = client.getMemoryUsed();
+                    Long memoryUsed = snapshot.getMemoryUsed();
                     // end::getMemoryUsed[]
                     // tag::setMemoryUsage[]
                     s.setMemoryUsed(memoryUsed);
                     // end::setMemoryUsage[]
+                    manager.updated(s);
+                    history.recordMemoryUsage(hostname, s.getMemoryUsage());
+                    events.updated(hostname, s.getMemoryUsage(), null);
                     logger.info(hostname + " memory usage = " + s.getMemoryUsage());
-                } catch (Exception e) {
-                    e.printStackTrace();
-                } finally {
-                    closeClient(client);
-                }
-            // tag::after[]
-            }, after, TimeUnit.SECONDS);
-            // end::after[]
+                })
+                .exceptionally(this::logFailure);
         }
     }
     // end::updateSystemsMemoryUsedMethod[]
     // end::updateSystemsMemoryUsed[]
 
     // tag::getSystemLoad[]
-    // tag::asynchronous2[]
-    @Asynchronous()
+    // Runs on the caller's thread, which it never blocks, because the call
+    // itself waits in the timing wheel and runs on the selected executor
+    // through the sampling bulkhead.
     // tag::getSystemLoadMethod[]
     // tag::getSystemLoadSignature[]
-    public CompletableFuture<Double> getSystemLoad(String hostname, int after) {
+    public CompletableFuture<Double> getSystemLoad(String hostname, int after,
+                                                   Deadline deadline) {
     // end::getSystemLoadSignature[]
-    // end::asynchronous2[]
         logger.info("Getting " + hostname + " recent system load...");
-        Double systemLoad = null;
-        SystemClient client = null;
-        try {
-            Thread.sleep(after * 1000);
-            // tag::getSystemClient5[]
-            client = getSystemClient(hostname);
-            // end::getSystemClient5[]
-            // tag::clientGetSystemLoad[]
-            systemLoad = client.getSystemLoad();
-            // end::clientGetSystemLoad[]
-            logger.info(hostname + " recent system load = " + systemLoad);
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            closeClient(client);
-        }
+        // tag::scheduleSystemLoad[]
+        CompletableFuture<Double> systemLoad = coalesce("systemLoad", hostname,
+            () -> guarded(hostname, () -> schedule("getSystemLoad", hostname, () -> {
+                // tag::clientGetSystemLoad[]
+                Double load = call("getSystemLoad", hostname, sampling,
+                                   SystemClient::getSystemLoad);
+                // end::clientGetSystemLoad[]
+                logger.info(hostname + " recent system load = " + load);
+                history.recordSystemLoad(hostname, load);
+                events.updated(hostname, null, load);
+                return load;
+            }, after, deadline, sampling)));
+        // end::scheduleSystemLoad[]
         // tag::return[]
-        return Asynchronous.Result.complete(systemLoad);
+        return systemLoad;
         // end::return[]
     }
     // end::getSystemLoadMethod[]
     // end::getSystemLoad[]
 
-    // tag::getSystemClientMethod[]
-    private SystemClient getSystemClient(String hostname) throws Exception {
-        String customURIString = "http://" + hostname + ":" + CLIENT_PORT + "/api";
-        URI customURI = URI.create(customURIString);
-        return RestClientBuilder.newBuilder()
-                                .baseUri(customURI)
-                                .register(UnknownUriExceptionMapper.class)
-                                .build(SystemClient.class);
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public int getDelayedCount() {
+        return wheel.getPending();
+    }
+
+    public List<Bulkhead> getBulkheads() {
+        return List.of(registration, refresh, sampling);
+    }
+
+    // starts the deadline of an operation that begins after the given seconds
+    public Deadline newDeadline(long after) {
+        return Deadline.after(TimeUnit.SECONDS.toMillis(after) + operationTimeout,
+                              TimeUnit.MILLISECONDS);
+    }
+
+    private CompletableFuture<SystemSnapshot> fetchSnapshot(String operation,
+                                                            String hostname,
+                                                            long after) {
+        return coalesce("snapshot", hostname,
+            () -> guarded(hostname,
+                () -> schedule(operation, hostname,
+                               () -> call(operation, hostname, refresh,
+                                          SystemClient::getSnapshot),
+                               after, newDeadline(after), refresh)));
+    }
+
+    // Fails at once while the circuit of the host is open. Otherwise starts
+    // the fetch and feeds its outcome back into the health of the host.
+    private <T> CompletableFuture<T> guarded(String hostname,
+                                             Supplier<CompletableFuture<T>> fetch) {
+        String state = health.allow(hostname);
+        if (state == null) {
+            return CompletableFuture.failedFuture(
+                new HostHealth.CircuitOpenException(hostname));
+        }
+        boolean probe = HostHealth.PROBING.equals(state);
+        if (probe) {
+            healthChanged(hostname, state);
+        }
+        CompletableFuture<T> future = fetch.get();
+        future.whenComplete((result, e) -> {
+            // a call rejected by the limiter or a bulkhead never reached the
+            // host, and a cancelled call says nothing about it
+            if (e == null) {
+                healthChanged(hostname, health.success(hostname));
+            } else if (!isRejected(e) && !isCancelled(e)) {
+                healthChanged(hostname, health.failure(hostname));
+            } else if (probe) {
+                healthChanged(hostname, health.abandon(hostname));
+            }
+        });
+        return future;
+    }
+
+    private static boolean isCancelled(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRejected(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HostLimiter.LimitExceededException
+                || t instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void healthChanged(String hostname, String state) {
+        if (state == null) {
+            return;
+        }
+        logger.info(hostname + " is " + state);
+        SystemData s = manager.getSystem(hostname);
+        if (s != null) {
+            s.setHealth(state);
+            manager.updated(s);
+        }
+    }
+
+    // Times the call as a whole, including a hedged copy if one is sent.
+    // The original and the copy each wait for their own place in the limit
+    // of the host. The caller already holds a place in the bulkhead of the
+    // call, which the original uses, so only the copy takes another one.
+    private <T> T call(String operation, String hostname, Bulkhead bulkhead,
+                       Function<SystemClient, T> request) throws Exception {
+        Callable<T> call =
+            () -> limiter.call(hostname, () -> clients.call(hostname, request));
+        if (hedger.isEnabled()) {
+            return metrics.time(operation, hostname,
+                () -> hedger.call(operation, hostname, managedExecutor, bulkhead, call));
+        }
+        return metrics.time(operation, hostname, call);
+    }
+
+    // Runs the call as a separate task and waits for it until the deadline.
+    // A call that is still running then is cancelled, which interrupts it,
+    // and counted as a timeout. The caller holds the place in the bulkhead
+    // that the call uses.
+    private <T> T within(String operation, String hostname, Deadline deadline,
+                         Callable<T> call) throws Exception {
+        Tracked<T> task = tracked(call);
+        Future<T> future;
+        try {
+            future = managedExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            task.cancelled();
+            throw e;
+        }
+        try {
+            return future.get(deadline.remaining(TimeUnit.NANOSECONDS),
+                              TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel(future, task);
+            metrics.timedOut(operation, hostname);
+            throw e;
+        } catch (InterruptedException e) {
+            cancel(future, task);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // counts the task as scheduled until it starts and as active while it runs
+    private <T> Tracked<T> tracked(Callable<T> task) {
+        metrics.taskScheduled();
+        return new Tracked<>(task);
     }
-    // end::getSystemClientMethod[]
 
-    private void closeClient(SystemClient client) {
-        if (client != null) {
+    private void cancel(Future<?> future, Tracked<?> task) {
+        future.cancel(true);
+        task.cancelled();
+    }
+
+    // Attaches to the pending or running fetch of the metric for the host if
+    // there is one. Otherwise starts a new fetch that later requests can
+    // attach to. Every caller gets its own future, so cancelling it only
+    // detaches that caller. The fetch itself is cancelled once every caller
+    // has cancelled.
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(String metric, String hostname,
+                                              Supplier<CompletableFuture<T>> fetch) {
+        String key = metric + ":" + hostname.toLowerCase(Locale.ROOT);
+        while (true) {
+            Shared<?>[] started = new Shared<?>[1];
+            Shared<T> shared = (Shared<T>) inFlight.computeIfAbsent(
+                key, k -> started[0] = new Shared<>(fetch.get()));
+            if (started[0] != null) {
+                shared.fetch.whenComplete((result, e) -> inFlight.remove(key, shared));
+                return shared.subscriber();
+            }
+            if (shared.join()) {
+                coalesced.incrementAndGet();
+                return shared.subscriber();
+            }
+            // every caller cancelled, so the fetch is on its way out
+            inFlight.remove(key, shared);
+        }
+    }
+
+    // tag::newIncompleteFuture[]
+    // The call may take the call timeout once it is due, but no longer than
+    // the deadline allows. When either passes, the future completes with a
+    // TimeoutException, the call is cancelled and the timeout is counted. A
+    // coalesced fetch keeps the deadline of the request that started it. A
+    // delayed call waits in the timing wheel rather than as a task of its own
+    // in the executor. Once due, the call waits for its turn in the bulkhead,
+    // and fails if the bulkhead is full.
+    private <T> CompletableFuture<T> schedule(String operation, String hostname,
+                                              Callable<T> call, long after,
+                                              Deadline deadline, Bulkhead bulkhead) {
+        CompletableFuture<T> result = managedExecutor.newIncompleteFuture();
+        Tracked<T> task = tracked(call);
+        FutureTask<Void> run = new FutureTask<>(() -> {
             try {
-                client.close();
+                result.complete(task.call());
             } catch (Exception e) {
-                e.printStackTrace();
+                result.completeExceptionally(e);
+            }
+        }, null);
+        Runnable admit = () -> {
+            try {
+                bulkhead.execute(run);
+            } catch (RejectedExecutionException e) {
+                task.cancelled();
+                result.completeExceptionally(e);
+            }
+        };
+        TimingWheel.Timeout delayed = null;
+        if (after > 0) {
+            delayed = wheel.schedule(admit, after, TimeUnit.SECONDS);
+        } else {
+            admit.run();
+        }
+        TimingWheel.Timeout timer = delayed;
+        long timeout = Math.min(TimeUnit.SECONDS.toMillis(after) + callTimeout,
+                                deadline.remaining(TimeUnit.MILLISECONDS));
+        result.orTimeout(timeout, TimeUnit.MILLISECONDS)
+              .whenComplete((value, e) -> {
+                  if (e != null) {
+                      if (timer != null) {
+                          timer.cancel();
+                      }
+                      cancel(run, task);
+                      if (e instanceof TimeoutException) {
+                          metrics.timedOut(operation, hostname);
+                      }
+                  }
+              });
+        return result;
+    }
+    // end::newIncompleteFuture[]
+
+    private Void logFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof CancellationException) {
+            logger.fine("Cancelled a refresh");
+        } else if (cause instanceof HostHealth.CircuitOpenException
+            || isRejected(cause)) {
+            logger.fine(cause.getMessage());
+        } else {
+            logger.log(Level.WARNING, "Failed to refresh system", e);
+        }
+        return null;
+    }
+
+    // a fetch with the number of callers that wait for it
+    private static class Shared<T> {
+
+        private final CompletableFuture<T> fetch;
+        // starts with the caller that started the fetch
+        private final AtomicInteger subscribers = new AtomicInteger(1);
+
+        Shared(CompletableFuture<T> fetch) {
+            this.fetch = fetch;
+        }
+
+        // counts one more caller, unless every caller has cancelled already
+        boolean join() {
+            int n;
+            do {
+                n = subscribers.get();
+                if (n == 0) {
+                    return false;
+                }
+            } while (!subscribers.compareAndSet(n, n + 1));
+            return true;
+        }
+
+        CompletableFuture<T> subscriber() {
+            CompletableFuture<T> future = fetch.copy();
+            future.whenComplete((result, e) -> {
+                if (future.isCancelled() && subscribers.decrementAndGet() == 0) {
+                    fetch.cancel(false);
+                }
+            });
+            return future;
+        }
+    }
+
+    private class Tracked<T> implements Callable<T> {
+
+        private final Callable<T> task;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Tracked(Callable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            metrics.taskStarted();
+            try {
+                return task.call();
+            } finally {
+                metrics.taskFinished();
+            }
+        }
+
+        // stops counting a task that is cancelled before it starts
+        void cancelled() {
+            if (started.compareAndSet(false, true)) {
+                metrics.taskCancelled();
             }
         }
     }
@@ -11,13 +11,26 @@
 // end::copyright[]
 package io.openliberty.guides.inventory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import io.openliberty.guides.inventory.models.SystemData;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
 
 @ApplicationScoped
 public class InventoryManager {
@@ -25,45 +38,233 @@ public class InventoryManager {
     @PersistenceContext(name = "jpa-unit")
     private EntityManager em;
 
-    private static List<SystemData> systems;
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    @Inject
+    private SystemEvents events;
+
+    // numbers every change, so its version is also a version of the inventory
+    @Inject
+    private ChangeLog changes;
+
+    @Inject
+    private HostHealth health;
+
+    @Inject
+    private SystemHistory history;
+
+    @Inject
+    private SystemCallMetrics metrics;
+
+    // sorted by the lower-cased hostname so that listings can resume after
+    // any hostname without copying the inventory
+    private volatile NavigableMap<String, SystemData> systems =
+        new ConcurrentSkipListMap<>();
 
     @PostConstruct
     public void init() {
-        systems = em.createNamedQuery("SystemData.findAll", SystemData.class)
-                    .getResultList();
+        NavigableMap<String, SystemData> loaded = new ConcurrentSkipListMap<>();
+        long v = changes.reset();
+        for (SystemData s : em.createNamedQuery("SystemData.findAll", SystemData.class)
+                              .getResultList()) {
+            s.setVersion(v);
+            s.setHealth(health.getState(s.getHostname()));
+            loaded.put(key(s.getHostname()), s);
+            history.add(s.getHostname());
+        }
+        systems = loaded;
+        events.reset();
     }
 
     public List<SystemData> getSystems() {
-        return systems;
+        return List.copyOf(systems.values());
+    }
+
+    // Returns a live view of the systems that sort after the given hostname,
+    // or of all systems when it is null, in the order of their hostnames.
+    public Collection<SystemData> getSystemsAfter(String hostname) {
+        NavigableMap<String, SystemData> current = systems;
+        return hostname == null
+            ? current.values()
+            : current.tailMap(key(hostname), false).values();
     }
 
     public SystemData getSystem(String hostname) {
-        for (SystemData s : systems) {
-            if (s.getHostname().equalsIgnoreCase(hostname)) {
-                return s;
+        return systems.get(key(hostname));
+    }
+
+    public long getVersion() {
+        return changes.getVersion();
+    }
+
+    // call after changing the memory usage or the system load of a system
+    public void updated(SystemData s) {
+        s.setVersion(changes.record(s.getHostname(), false));
+    }
+
+    // Returns the systems that were added or refreshed and the hostnames of
+    // the systems that were removed since the given version, or null if the
+    // change log no longer reaches back that far.
+    public Changes getChanges(long since) {
+        List<ChangeLog.Change> log = changes.since(since);
+        if (log == null) {
+            return null;
+        }
+        // every version after the given one is in the log
+        long version = log.isEmpty() ? since : log.get(log.size() - 1).version();
+        // keep only the latest change of each system
+        Map<String, ChangeLog.Change> latest = new LinkedHashMap<>();
+        for (ChangeLog.Change c : log) {
+            String key = key(c.hostname());
+            latest.remove(key);
+            latest.put(key, c);
+        }
+        List<SystemData> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, ChangeLog.Change> e : latest.entrySet()) {
+            SystemData s = e.getValue().removed() ? null : systems.get(e.getKey());
+            if (s != null) {
+                changed.add(s);
+            } else {
+                removed.add(e.getValue().hostname());
             }
         }
-        return null;
+        return new Changes(version, changed, removed);
     }
 
+    @Transactional
     public boolean add(SystemData s) {
-        if (getSystem(s.getHostname()) != null) {
+        s.setHealth(health.getState(s.getHostname()));
+        if (systems.putIfAbsent(key(s.getHostname()), s) != null) {
             return false;
         }
-        em.persist(s);
-        systems.add(s);
+        try {
+            em.persist(s);
+            // flush here so that a failed insert also undoes the map entry
+            em.flush();
+        } catch (RuntimeException e) {
+            systems.remove(key(s.getHostname()), s);
+            throw e;
+        }
+        afterAddition(List.of(s));
         return true;
     }
 
+    @Transactional
     public boolean removeSystem(String hostname) {
-        SystemData s = getSystem(hostname);
+        SystemData s = systems.remove(key(hostname));
         if (s == null) {
             return false;
         }
-        systems.remove(s);
-        s = em.find(SystemData.class, hostname);
-        em.remove(s);
+        afterRemoval(List.of(s));
+        SystemData row = em.find(SystemData.class, s.getHostname());
+        if (row != null) {
+            em.remove(row);
+        }
         return true;
     }
 
+    // Adds the systems that are not in the inventory yet in one transaction
+    // and returns them. The inserts are sent to the database in JDBC batches.
+    @Transactional
+    public List<SystemData> addAll(List<SystemData> batch) {
+        List<SystemData> added = new ArrayList<>();
+        try {
+            for (SystemData s : batch) {
+                s.setHealth(health.getState(s.getHostname()));
+                if (systems.putIfAbsent(key(s.getHostname()), s) == null) {
+                    added.add(s);
+                    em.persist(s);
+                }
+            }
+            em.flush();
+        } catch (RuntimeException e) {
+            for (SystemData s : added) {
+                systems.remove(key(s.getHostname()), s);
+            }
+            throw e;
+        }
+        if (!added.isEmpty()) {
+            afterAddition(added);
+        }
+        return added;
+    }
+
+    // Removes the systems in one transaction with a single delete statement
+    // and returns the hostnames of the systems that were removed.
+    @Transactional
+    public List<String> removeAll(List<String> hostnames) {
+        List<SystemData> removed = new ArrayList<>();
+        List<String> removedHostnames = new ArrayList<>();
+        for (String hostname : hostnames) {
+            SystemData s = systems.remove(key(hostname));
+            if (s != null) {
+                removed.add(s);
+                removedHostnames.add(s.getHostname());
+            }
+        }
+        if (!removed.isEmpty()) {
+            afterRemoval(removed);
+            em.createNamedQuery("SystemData.deleteByHostnames")
+              .setParameter("hostnames", removedHostnames)
+              .executeUpdate();
+        }
+        return removedHostnames;
+    }
+
+    // Records the addition of the systems once the transaction commits, or
+    // takes them out of the map again if the commit fails.
+    private void afterAddition(List<SystemData> added) {
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (SystemData s : added) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        history.add(s.getHostname());
+                        s.setVersion(changes.record(s.getHostname(), false));
+                        events.added(s);
+                    } else {
+                        systems.remove(key(s.getHostname()), s);
+                    }
+                }
+            }
+        });
+    }
+
+    // Records the removal of the systems once the transaction commits, or
+    // puts them back if the delete or the commit fails.
+    private void afterRemoval(List<SystemData> removed) {
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (SystemData s : removed) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        history.remove(s.getHostname());
+                        metrics.forget(s.getHostname());
+                        changes.record(s.getHostname(), true);
+                        events.removed(s.getHostname());
+                    } else {
+                        systems.putIfAbsent(key(s.getHostname()), s);
+                    }
+                }
+            }
+        });
+    }
+
+    public record Changes(long version, List<SystemData> changed, List<String> removed) {
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
 }
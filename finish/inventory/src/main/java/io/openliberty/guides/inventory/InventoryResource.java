@@ -11,21 +11,44 @@
 // end::copyright[]
 package io.openliberty.guides.inventory;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 
+import io.openliberty.guides.inventory.client.SystemClientCache;
 import io.openliberty.guides.inventory.models.SystemData;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -33,13 +56,28 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 @ApplicationScoped
 @Path("/inventory")
 public class InventoryResource {
 
+    private static Logger logger = Logger.getLogger(InventoryResource.class.getName());
+
+    // the most systems that a page of the listing can hold
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // the most steps that a history query can return per metric
+    private static final int MAX_HISTORY_STEPS = 10000;
+
     @Inject
     private InventoryManager manager;
 
@@ -48,18 +86,186 @@ public class InventoryResource {
     private InventoryAsyncTask task;
     // end::inventoryAsyncTask[]
 
+    @Inject
+    private SystemClientCache clients;
+
+    @Inject
+    private SystemHistory history;
+
+    @Inject
+    private SystemEvents events;
+
+    @Inject
+    private RequestHedger hedger;
+
+    @Inject
+    private HostHealth health;
+
+    @Inject
+    private HostLimiter limiter;
+
+    @Inject
+    private RefreshJobs jobs;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulk.concurrency")
+    private int bulkConcurrency;
+
+    @Inject
+    @ConfigProperty(name = "inventory.bulk.batchSize")
+    private int bulkBatchSize;
+
+    // Without a limit the whole inventory is streamed entry by entry. With a
+    // limit one page is returned, with a link to the next page if there is one.
     @GET
     @Path("/systems")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<SystemData> listContents() {
-        return manager.getSystems();
+    public Response listContents(
+        @Parameter(
+            name = "limit", in = ParameterIn.QUERY,
+            description = "the maximum number of systems to return",
+            example = "100",
+            schema = @Schema(type = SchemaType.INTEGER))
+        @QueryParam("limit") Integer limit,
+        @Parameter(
+            name = "after", in = ParameterIn.QUERY,
+            description = "return the systems whose hostnames sort after this one",
+            example = "localhost",
+            schema = @Schema(type = SchemaType.STRING))
+        @QueryParam("after") String after,
+        @Context UriInfo uriInfo,
+        @Context Request request) {
+        // read the version first so that a change during the response
+        // makes the next request fetch the systems again
+        EntityTag etag = etag(manager.getVersion());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        Collection<SystemData> systems = manager.getSystemsAfter(after);
+        if (limit == null) {
+            return Response.ok((StreamingOutput) out -> writeSystems(systems, out))
+                           .tag(etag)
+                           .build();
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return fail("The limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        List<SystemData> page = new ArrayList<>(limit);
+        Iterator<SystemData> it = systems.iterator();
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        Response.ResponseBuilder response =
+            Response.ok((StreamingOutput) out -> writeSystems(page, out)).tag(etag);
+        if (it.hasNext()) {
+            String last = page.get(page.size() - 1).getHostname();
+            response.link(uriInfo.getRequestUriBuilder()
+                                 .replaceQueryParam("after", last)
+                                 .build(), "next");
+        }
+        return response.build();
+    }
+
+    // Returns the systems that changed and the hostnames of the systems that
+    // were removed since the given version, with the version to ask from next
+    // time. When the changes are no longer known, resync is true and the
+    // client must list all systems. The ETag of that listing is the version
+    // to ask from next time.
+    @GET
+    @Path("/systems/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getChanges(
+        @Parameter(
+            name = "since", in = ParameterIn.QUERY,
+            description = "the version that the client last synchronized with",
+            required = true,
+            schema = @Schema(type = SchemaType.INTEGER))
+        @QueryParam("since") Long since) {
+        if (since == null) {
+            return fail("The since version is required.");
+        }
+        InventoryManager.Changes changes = manager.getChanges(since);
+        if (changes == null) {
+            return Response.ok(Json.createObjectBuilder()
+                                   .add("version", manager.getVersion())
+                                   .add("resync", true)
+                                   .build())
+                           .build();
+        }
+        return Response.ok((StreamingOutput) out -> {
+            Writer writer = writer(out);
+            writer.write("{\"version\":" + changes.version()
+                         + ",\"resync\":false,\"changed\":");
+            writeArray(writer, changes.changed());
+            writer.write(",\"removed\":");
+            writeArray(writer, changes.removed());
+            writer.write('}');
+            writer.flush();
+        }).build();
+    }
+
+    @GET
+    @Path("/systems/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void subscribe(@Context SseEventSink sink, @Context Sse sse) {
+        events.subscribe(sink, sse);
     }
 
     @GET
     @Path("/system/{hostname}")
     @Produces(MediaType.APPLICATION_JSON)
-    public SystemData getSystem(@PathParam("hostname") String hostname) {
-        return manager.getSystem(hostname);
+    public Response getSystem(@PathParam("hostname") String hostname,
+                              @Context Request request) {
+        SystemData s = manager.getSystem(hostname);
+        if (s == null) {
+            return Response.noContent().build();
+        }
+        EntityTag etag = etag(s.getVersion());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(s).tag(etag).build();
+    }
+
+    @GET
+    @Path("/system/{hostname}/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getSystemHistory(
+        @PathParam("hostname") String hostname,
+        @Parameter(
+            name = "window", in = ParameterIn.QUERY,
+            description = "the number of recent seconds to summarize",
+            example = "3600",
+            schema = @Schema(type = SchemaType.INTEGER))
+        @QueryParam("window") @DefaultValue("3600") long window,
+        @Parameter(
+            name = "step", in = ParameterIn.QUERY,
+            description = "the length of each summarized step in seconds",
+            example = "60",
+            schema = @Schema(type = SchemaType.INTEGER))
+        @QueryParam("step") @DefaultValue("60") long step) {
+        if (window <= 0 || step <= 0 || window / step > MAX_HISTORY_STEPS) {
+            return fail("The window must be positive and at most "
+                        + MAX_HISTORY_STEPS + " steps long.");
+        }
+        if (manager.getSystem(hostname) == null) {
+            return fail(hostname + " does not exist.");
+        }
+        long to = System.currentTimeMillis();
+        long from = to - TimeUnit.SECONDS.toMillis(window);
+        long stepMillis = TimeUnit.SECONDS.toMillis(step);
+        JsonObject result = Json.createObjectBuilder()
+            .add("hostname", hostname)
+            .add("window", window)
+            .add("step", step)
+            .add("memoryUsage", summarize(history.getMemoryUsage(hostname),
+                                          from, to, stepMillis))
+            .add("systemLoad", summarize(history.getSystemLoad(hostname),
+                                         from, to, stepMillis))
+            .build();
+        return Response.ok(result).build();
     }
 
     // tag::addSystemClient[]
@@ -67,7 +273,6 @@ public class InventoryResource {
     @Path("/system/{hostname}")
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
     @Produces(MediaType.APPLICATION_JSON)
-    @Transactional
     public Response addSystemClient(
         @Parameter(
            name = "hostname", in = ParameterIn.PATH,
@@ -75,6 +280,8 @@ public class InventoryResource {
            required = true, example = "localhost",
            schema = @Schema(type = SchemaType.STRING))
         @PathParam("hostname") String hostname) {
+        // probe the system before InventoryManager.add starts a transaction
+        // so that no connection is held while waiting for the remote calls
         // tag::getClientData[]
         SystemData system = task.getClientData(hostname);
         if (system == null) {
@@ -89,6 +296,87 @@ public class InventoryResource {
     }
     // end::addSystemClient[]
 
+    @POST
+    @Path("/systems")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response addSystemClients(List<String> hostnames) {
+        if (hostnames == null || hostnames.isEmpty()) {
+            return fail("No hostnames were given.");
+        }
+        List<String> unique = List.copyOf(new LinkedHashSet<>(hostnames));
+        PartialResult<SystemData> result = task.getClientData(unique, bulkConcurrency);
+        Map<String, SystemData> probed = result.getCompleted();
+        Set<String> timedOut = result.getTimedOut();
+        List<SystemData> reachable = new ArrayList<>();
+        for (String hostname : unique) {
+            if (probed.containsKey(hostname)) {
+                reachable.add(probed.get(hostname));
+            }
+        }
+        Set<String> added = new HashSet<>();
+        Set<String> failed = new HashSet<>();
+        for (List<SystemData> batch : batches(reachable)) {
+            try {
+                for (SystemData s : manager.addAll(batch)) {
+                    added.add(s.getHostname());
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to store a batch of systems", e);
+                batch.forEach(s -> failed.add(s.getHostname()));
+            }
+        }
+        JsonObjectBuilder results = Json.createObjectBuilder();
+        for (String hostname : unique) {
+            if (timedOut.contains(hostname)) {
+                results.add(hostname, "timedOut");
+            } else if (!probed.containsKey(hostname) || failed.contains(hostname)) {
+                results.add(hostname, "failed");
+            } else {
+                results.add(hostname, added.contains(hostname) ? "added" : "exists");
+            }
+        }
+        return Response.ok(results.build()).build();
+    }
+
+    @DELETE
+    @Path("/systems")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response removeSystems(List<String> hostnames) {
+        if (hostnames == null || hostnames.isEmpty()) {
+            return fail("No hostnames were given.");
+        }
+        List<String> unique = List.copyOf(new LinkedHashSet<>(hostnames));
+        Set<String> removed = new HashSet<>();
+        Set<String> failed = new HashSet<>();
+        for (List<String> batch : batches(unique)) {
+            try {
+                for (String hostname : manager.removeAll(batch)) {
+                    removed.add(hostname.toLowerCase(Locale.ROOT));
+                    clients.invalidate(hostname);
+                    hedger.forget(hostname);
+                    health.forget(hostname);
+                    limiter.forget(hostname);
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to remove a batch of systems", e);
+                batch.forEach(hostname -> failed.add(hostname));
+            }
+        }
+        JsonObjectBuilder results = Json.createObjectBuilder();
+        for (String hostname : unique) {
+            if (failed.contains(hostname)) {
+                results.add(hostname, "failed");
+            } else if (removed.contains(hostname.toLowerCase(Locale.ROOT))) {
+                results.add(hostname, "removed");
+            } else {
+                results.add(hostname, "notFound");
+            }
+        }
+        return Response.ok(results.build()).build();
+    }
+
     // tag::updateMemoryUsed[]
     @PUT
     @Path("/systems/memoryUsed")
@@ -99,19 +387,55 @@ public class InventoryResource {
             description = "update the memory usage after the specified seconds",
             required = true, example = "5",
             schema = @Schema(type = SchemaType.INTEGER))
-        @QueryParam("after") Integer after) {
+        @QueryParam("after") Integer after,
+        @Context UriInfo uriInfo) {
+        List<SystemData> systems = manager.getSystems();
+        RefreshJob job = jobs.create(systems.size());
         // tag::updateSystemsMemoryUsed[]
-        task.updateSystemsMemoryUsed(manager.getSystems(), after.intValue());
+        task.updateSystemsMemoryUsed(systems, after.intValue(), job);
         // end::updateSystemsMemoryUsed[]
-        return success("Check after " + after + " seconds");
+        return Response.ok(Json.createObjectBuilder()
+                               .add("ok", "Check after " + after + " seconds")
+                               .add("job", job.getId())
+                               .build())
+                       .location(uriInfo.getBaseUriBuilder()
+                                        .path(InventoryResource.class)
+                                        .path("jobs/{id}")
+                                        .build(job.getId()))
+                       .build();
     }
     // end::updateMemoryUsed[]
 
+    @GET
+    @Path("/jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJob(@PathParam("id") String id) {
+        RefreshJob job = jobs.get(id);
+        if (job == null) {
+            return notFound("No job " + id);
+        }
+        return Response.ok(job(job)).build();
+    }
+
+    // Cancels the refreshes of the job that have not completed yet and
+    // returns the job as it stands.
+    @DELETE
+    @Path("/jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cancelJob(@PathParam("id") String id) {
+        RefreshJob job = jobs.get(id);
+        if (job == null) {
+            return notFound("No job " + id);
+        }
+        job.cancel();
+        return Response.ok(job(job)).build();
+    }
+
     // tag::updateSystemLoad[]
     @PUT
     @Path("/systems/systemLoad")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response updateSystemLoad(
+    public CompletionStage<Response> updateSystemLoad(
         @Parameter(
             name = "after", in = ParameterIn.QUERY,
             description = "update the system load after the specified seconds",
@@ -119,50 +443,59 @@ public class InventoryResource {
             schema = @Schema(type = SchemaType.INTEGER))
         @QueryParam("after") Integer after) {
         List<SystemData> systems = manager.getSystems();
-        // tag::countDownLatch[]
-        CountDownLatch remainingSystems = new CountDownLatch(systems.size());
-        // end::countDownLatch[]
+        // the calls share one deadline, so the response never waits longer
+        Deadline deadline = task.newDeadline(after.intValue());
+        PartialResult<Double> result = new PartialResult<>();
+        CompletableFuture<?>[] updates = new CompletableFuture<?>[systems.size()];
+        int i = 0;
         // tag::getSystemLoad[]
         for (SystemData s : systems) {
-            task.getSystemLoad(s.getHostname(), after.intValue())
+            updates[i++] = task.getSystemLoad(s.getHostname(), after.intValue(), deadline)
         // end::getSystemLoad[]
-                // tag::thenAcceptAsync[]
-                .thenAcceptAsync(systemLoad -> {
-                       // tag::setSystemLoad[]
-                       s.setSystemLoad(systemLoad);
-                       // end::setSystemLoad[]
-                       // tag::countDown1[]
-                       remainingSystems.countDown();
-                       // end::countDown1[]
-                    })
-                // end::thenAcceptAsync[]
-                // tag::exceptionally[]
-                .exceptionally(ex -> {
-                    ex.printStackTrace();
-                    // tag::countDown2[]
-                    remainingSystems.countDown();
-                    // end::countDown2[]
+                // tag::orTimeout[]
+                .orTimeout(deadline.remaining(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)
+                // end::orTimeout[]
+                // tag::handle[]
+                .handle((systemLoad, ex) -> {
+                    if (ex == null && systemLoad != null) {
+                        // tag::setSystemLoad[]
+                        s.setSystemLoad(systemLoad);
+                        // end::setSystemLoad[]
+                        manager.updated(s);
+                    } else if (ex != null) {
+                        logger.log(Level.WARNING,
+                            "Failed to get the system load of " + s.getHostname(), ex);
+                    }
+                    result.record(s.getHostname(), systemLoad, ex);
                     return null;
-               });
-               // end::exceptionally[]
-            }
-        try {
-            // tag::await[]
-            remainingSystems.await(30, TimeUnit.SECONDS);
-            // end::await[]
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+                });
+                // end::handle[]
         }
-        return success("Successfully updated the system load.");
+        // tag::allOf[]
+        return CompletableFuture.allOf(updates)
+            .thenApply(done -> {
+                result.seal(systems.stream().map(SystemData::getHostname).toList());
+                return Response.ok(Json.createObjectBuilder()
+                        .add("updated", Json.createArrayBuilder(
+                            result.getCompleted().keySet()))
+                        .add("timedOut", Json.createArrayBuilder(result.getTimedOut()))
+                        .add("failed", Json.createArrayBuilder(result.getFailed()))
+                        .build())
+                    .build();
+            });
+        // end::allOf[]
     }
     // end::updateSystemLoad[]
 
     @DELETE
     @Path("/system/{hostname}")
     @Produces(MediaType.APPLICATION_JSON)
-    @Transactional
     public Response removeSystem(@PathParam("hostname") String hostname) {
         if (manager.removeSystem(hostname)) {
+            clients.invalidate(hostname);
+            hedger.forget(hostname);
+            health.forget(hostname);
+            limiter.forget(hostname);
             return success(hostname + " was removed.");
         }
         return fail("Failed to remove " + hostname);
@@ -176,10 +509,147 @@ public class InventoryResource {
         return success("Reset the systems.");
     }
 
+    @GET
+    @Path("/clients/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getClientStats() {
+        return Json.createObjectBuilder()
+                   .add("size", clients.size())
+                   .add("hits", clients.getHits())
+                   .add("misses", clients.getMisses())
+                   .add("evictions", clients.getEvictions())
+                   .build();
+    }
+
+    @GET
+    @Path("/tasks/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getTaskStats() {
+        JsonObjectBuilder bulkheads = Json.createObjectBuilder();
+        for (Bulkhead b : task.getBulkheads()) {
+            bulkheads.add(b.getName(), Json.createObjectBuilder()
+                                           .add("running", b.getRunning())
+                                           .add("queued", b.getQueued())
+                                           .add("rejected", b.getRejected()));
+        }
+        return Json.createObjectBuilder()
+                   .add("inFlight", task.getInFlightCount())
+                   .add("coalesced", task.getCoalescedCount())
+                   .add("delayed", task.getDelayedCount())
+                   .add("hedged", hedger.getSentCount())
+                   .add("hedgesWon", hedger.getWonCount())
+                   .add("bulkheads", bulkheads)
+                   .build();
+    }
+
+    @GET
+    @Path("/events/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getEventStats() {
+        return Json.createObjectBuilder()
+                   .add("subscribers", events.getSubscriberCount())
+                   .add("dropped", events.getDroppedCount())
+                   .build();
+    }
+
+    // the current limit, calls in flight and queued calls of every host
+    // that was called since it was added
+    @GET
+    @Path("/limits/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getLimitStats() {
+        JsonObjectBuilder stats = Json.createObjectBuilder();
+        for (HostLimiter.Status s : limiter.getStatus()) {
+            stats.add(s.hostname(), Json.createObjectBuilder()
+                                        .add("limit", s.limit())
+                                        .add("inFlight", s.inFlight())
+                                        .add("queued", s.queued()));
+        }
+        return stats.build();
+    }
+
+    private JsonObject job(RefreshJob job) {
+        String state = !job.isFinished() ? "running"
+            : job.isCancelled() ? "cancelled"
+            : "completed";
+        return Json.createObjectBuilder()
+                   .add("id", job.getId())
+                   .add("state", state)
+                   .add("total", job.getTotal())
+                   .add("done", job.getDone())
+                   .add("failed", job.getFailed())
+                   .add("cancelled", job.getCancelled())
+                   .add("pending", job.getPending())
+                   .add("durationMillis", job.getDuration(TimeUnit.MILLISECONDS))
+                   .build();
+    }
+
+    private EntityTag etag(long version) {
+        return new EntityTag(Long.toString(version));
+    }
+
+    private void writeSystems(Iterable<SystemData> systems, OutputStream out)
+        throws IOException {
+        Writer writer = writer(out);
+        writeArray(writer, systems);
+        writer.flush();
+    }
+
+    // Streams the array one item at a time. Each item is serialized by the
+    // JSON-B instance of the events, so a system is written the same way in
+    // the listings, the changes, the events and getSystem().
+    private static void writeArray(Writer writer, Iterable<?> items)
+        throws IOException {
+        writer.write('[');
+        String separator = "";
+        for (Object item : items) {
+            writer.write(separator);
+            writer.write(SystemEvents.JSONB.toJson(item));
+            separator = ",";
+        }
+        writer.write(']');
+    }
+
+    // flushed but not closed, which is left to the runtime
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private JsonArrayBuilder summarize(MetricHistory metric, long from, long to,
+                                       long step) {
+        JsonArrayBuilder steps = Json.createArrayBuilder();
+        if (metric == null) {
+            return steps;
+        }
+        for (MetricHistory.Step s : metric.summarize(from, to, step)) {
+            steps.add(Json.createObjectBuilder()
+                          .add("timestamp", s.timestamp())
+                          .add("count", s.count())
+                          .add("min", s.min())
+                          .add("avg", s.avg())
+                          .add("max", s.max()));
+        }
+        return steps;
+    }
+
+    private <T> List<List<T>> batches(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += bulkBatchSize) {
+            batches.add(items.subList(i, Math.min(i + bulkBatchSize, items.size())));
+        }
+        return batches;
+    }
+
     private Response success(String message) {
         return Response.ok("{ \"ok\" : \"" + message + "\" }").build();
     }
 
+    private Response notFound(String message) {
+        return Response.status(Response.Status.NOT_FOUND)
+                       .entity("{ \"error\" : \"" + message + "\" }")
+                       .build();
+    }
+
     private Response fail(String message) {
         return Response.status(Response.Status.BAD_REQUEST)
                        .entity("{ \"error\" : \"" + message + "\" }")
@@ -0,0 +1,86 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// a ring buffer that overwrites the oldest sample once it is full
+public class MetricHistory {
+
+    private final long[] timestamps;
+    private final double[] values;
+
+    // guarded by this
+    private int next;
+    private int size;
+
+    public MetricHistory(int capacity) {
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    public synchronized void add(long timestamp, double value) {
+        timestamps[next] = timestamp;
+        values[next] = value;
+        next = (next + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Downsamples the samples taken in [from, to) into steps of the given
+    // length in milliseconds. Steps without samples are left out.
+    public List<Step> summarize(long from, long to, long step) {
+        int steps = (int) ((to - from + step - 1) / step);
+        int[] count = new int[steps];
+        double[] min = new double[steps];
+        double[] max = new double[steps];
+        double[] sum = new double[steps];
+        synchronized (this) {
+            int capacity = timestamps.length;
+            for (int i = 0; i < size; i++) {
+                int slot = (next - size + i + capacity) % capacity;
+                long t = timestamps[slot];
+                if (t < from || t >= to) {
+                    continue;
+                }
+                int b = (int) ((t - from) / step);
+                double v = values[slot];
+                if (count[b] == 0) {
+                    min[b] = v;
+                    max[b] = v;
+                } else {
+                    min[b] = Math.min(min[b], v);
+                    max[b] = Math.max(max[b], v);
+                }
+                sum[b] += v;
+                count[b]++;
+            }
+        }
+        List<Step> summary = new ArrayList<>();
+        for (int b = 0; b < steps; b++) {
+            if (count[b] > 0) {
+                summary.add(new Step(from + b * step, count[b],
+                                     min[b], sum[b] / count[b], max[b]));
+            }
+        }
+        return summary;
+    }
+
+    public record Step(long timestamp, int count, double min, double avg, double max) {
+    }
+}
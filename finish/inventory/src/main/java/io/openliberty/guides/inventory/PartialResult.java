@@ -0,0 +1,83 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+// sealed once the operation is over, so that late calls no longer change it
+public class PartialResult<T> {
+
+    // guarded by this
+    private final Map<String, T> completed = new HashMap<>();
+    private final Set<String> timedOut = new HashSet<>();
+    private final Set<String> failed = new HashSet<>();
+    private boolean sealed;
+
+    // records a value, or the timeout or failure that the call ended with
+    public synchronized void record(String hostname, T value, Throwable e) {
+        if (sealed || contains(hostname)) {
+            return;
+        }
+        if (e == null && value != null) {
+            completed.put(hostname, value);
+        } else if (e != null && isTimeout(e)) {
+            timedOut.add(hostname);
+        } else {
+            failed.add(hostname);
+        }
+    }
+
+    // marks the systems without an outcome as timed out and stops recording
+    public synchronized PartialResult<T> seal(Collection<String> hostnames) {
+        if (!sealed) {
+            for (String hostname : hostnames) {
+                if (!contains(hostname)) {
+                    timedOut.add(hostname);
+                }
+            }
+            sealed = true;
+        }
+        return this;
+    }
+
+    public synchronized Map<String, T> getCompleted() {
+        return Map.copyOf(completed);
+    }
+
+    public synchronized Set<String> getTimedOut() {
+        return Set.copyOf(timedOut);
+    }
+
+    public synchronized Set<String> getFailed() {
+        return Set.copyOf(failed);
+    }
+
+    // a call that is cancelled when its deadline passes also timed out
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CancellationException) {
+                return true;
+            }
+        }
+        return SystemCallMetrics.isTimeout(e);
+    }
+
+    private boolean contains(String hostname) {
+        return completed.containsKey(hostname) || timedOut.contains(hostname)
+               || failed.contains(hostname);
+    }
+}
@@ -0,0 +1,122 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RefreshJob {
+
+    private final String id;
+    private final int total;
+    private final long start = System.nanoTime();
+
+    private final Queue<CompletableFuture<?>> refreshes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+
+    private volatile boolean cancelRequested;
+    private volatile long end;
+
+    public RefreshJob(String id, int total) {
+        this.id = id;
+        this.total = total;
+        if (total == 0) {
+            end = start;
+        }
+    }
+
+    // the refresh must be the job's own future, so that cancelling it leaves
+    // the other callers of a coalesced fetch alone
+    public void track(CompletableFuture<?> refresh) {
+        refreshes.add(refresh);
+        refresh.whenComplete((result, e) -> {
+            if (e == null) {
+                done.incrementAndGet();
+            } else if (e instanceof CancellationException) {
+                cancelled.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            finished(1);
+        });
+        // cancel() may have missed a refresh that was added meanwhile
+        if (cancelRequested) {
+            refresh.cancel(false);
+        }
+    }
+
+    // counts refreshes that were never started because the job was cancelled
+    public void skipped(int count) {
+        if (count > 0) {
+            cancelled.addAndGet(count);
+            finished(count);
+        }
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+        for (CompletableFuture<?> refresh : refreshes) {
+            refresh.cancel(false);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public boolean isFinished() {
+        return finished.get() >= total;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getDone() {
+        return done.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getCancelled() {
+        return cancelled.get();
+    }
+
+    public int getPending() {
+        return total - finished.get();
+    }
+
+    // the time from the request until now, or until the last refresh finished
+    public long getDuration(TimeUnit unit) {
+        long until = isFinished() ? end : System.nanoTime();
+        return unit.convert(until - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void finished(int count) {
+        if (finished.addAndGet(count) == total) {
+            end = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class RefreshJobs {
+
+    @Inject
+    @ConfigProperty(name = "inventory.jobs.capacity")
+    int capacity;
+
+    private final Map<String, RefreshJob> jobs = new ConcurrentHashMap<>();
+    // the IDs in the order the jobs were created
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    public RefreshJob create(int total) {
+        RefreshJob job = new RefreshJob(UUID.randomUUID().toString(), total);
+        jobs.put(job.getId(), job);
+        order.add(job.getId());
+        // forget the oldest finished jobs, and keep the running ones even
+        // beyond the capacity so that they can still be cancelled
+        Iterator<String> ids = order.iterator();
+        while (jobs.size() > capacity && ids.hasNext()) {
+            String id = ids.next();
+            RefreshJob oldest = jobs.get(id);
+            if (oldest == null || oldest.isFinished()) {
+                ids.remove();
+                jobs.remove(id);
+            }
+        }
+        return job;
+    }
+
+    public RefreshJob get(String id) {
+        return jobs.get(id);
+    }
+}
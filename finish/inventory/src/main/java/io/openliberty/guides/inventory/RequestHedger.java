@@ -0,0 +1,237 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class RequestHedger {
+
+    static final String HEDGE_SENT = "inventory.hedge.sent";
+    static final String HEDGE_WON = "inventory.hedge.won";
+
+    // the latencies kept per host and operation
+    private static final int WINDOW = 128;
+    // the hedges that can be saved up while calls are fast
+    private static final long MAX_TOKENS = 10 * 1000;
+
+    @Inject
+    @ConfigProperty(name = "inventory.hedge.enabled")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "inventory.hedge.percentile")
+    double percentile;
+
+    @Inject
+    @ConfigProperty(name = "inventory.hedge.budget")
+    double budget;
+
+    @Inject
+    @ConfigProperty(name = "inventory.hedge.minSamples")
+    int minSamples;
+
+    @Inject
+    MetricRegistry registry;
+
+    // keyed by the lower-cased hostname and then by operation
+    private final Map<String, Map<String, LatencyWindow>> latencies =
+        new ConcurrentHashMap<>();
+
+    // thousandths of a hedge, of which every call earns the budget, so the
+    // hedges stay within that fraction of the calls
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong won = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The original runs on the executor and the hedged copy on the hedges
+    // executor, typically the bulkhead of the call. A copy that the hedges
+    // executor turns away is not sent and its token is given back.
+    public <T> T call(String operation, String hostname, Executor executor,
+                      Executor hedges, Callable<T> call) throws Exception {
+        String key = key(hostname);
+        LatencyWindow window = latencies
+            .computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(operation, k -> new LatencyWindow());
+        earn();
+        Callable<T> attempt = () -> {
+            long start = System.nanoTime();
+            T result = call.call();
+            window.add(System.nanoTime() - start);
+            return result;
+        };
+        // both attempts complete into the same queue
+        BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+        CompletionService<T> attempts =
+            new ExecutorCompletionService<>(executor, completed);
+        Future<T> primary = attempts.submit(attempt);
+        Future<T> hedge = null;
+        try {
+            long delay = window.percentile(percentile, minSamples);
+            Future<T> done = delay < 0
+                ? completed.take()
+                : completed.poll(delay, TimeUnit.NANOSECONDS);
+            if (done == null) {
+                if (spend()) {
+                    try {
+                        hedge = new ExecutorCompletionService<T>(hedges, completed)
+                            .submit(attempt);
+                        sent.incrementAndGet();
+                        registry.counter(HEDGE_SENT, tags(operation, key)).inc();
+                    } catch (RejectedExecutionException e) {
+                        refund();
+                    }
+                }
+                done = completed.take();
+            }
+            int pending = hedge == null ? 1 : 2;
+            Exception failure = null;
+            while (true) {
+                try {
+                    T result = done.get();
+                    if (done == hedge) {
+                        won.incrementAndGet();
+                        registry.counter(HEDGE_WON, tags(operation, key)).inc();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (failure == null || failure instanceof CancellationException) {
+                        failure = e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                } catch (CancellationException e) {
+                    // the hedges executor turned the copy away after all
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+                if (--pending == 0) {
+                    throw failure;
+                }
+                done = completed.take();
+            }
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    public void forget(String hostname) {
+        String key = key(hostname);
+        Map<String, LatencyWindow> windows = latencies.remove(key);
+        if (windows == null) {
+            return;
+        }
+        // the counters of a host are only created after its windows
+        for (String operation : windows.keySet()) {
+            registry.remove(new MetricID(HEDGE_SENT, tags(operation, key)));
+            registry.remove(new MetricID(HEDGE_WON, tags(operation, key)));
+        }
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getWonCount() {
+        return won.get();
+    }
+
+    private void earn() {
+        long earned = (long) (budget * 1000);
+        tokens.getAndUpdate(t -> Math.min(MAX_TOKENS, t + earned));
+    }
+
+    private void refund() {
+        tokens.getAndUpdate(t -> Math.min(MAX_TOKENS, t + 1000));
+    }
+
+    private boolean spend() {
+        while (true) {
+            long t = tokens.get();
+            if (t < 1000) {
+                return false;
+            }
+            if (tokens.compareAndSet(t, t - 1000)) {
+                return true;
+            }
+        }
+    }
+
+    // tagged with the lower-cased hostname, like the latency windows
+    private static Tag[] tags(String operation, String key) {
+        return new Tag[] { new Tag("host", key), new Tag("operation", operation) };
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    // the latencies of the most recent calls of one host and operation
+    private static class LatencyWindow {
+
+        // guarded by this
+        private final long[] nanos = new long[WINDOW];
+        private int next;
+        private int size;
+
+        synchronized void add(long latency) {
+            nanos[next] = latency;
+            next = (next + 1) % WINDOW;
+            if (size < WINDOW) {
+                size++;
+            }
+        }
+
+        // returns -1 until there are enough samples to go by
+        long percentile(double percentile, int minSamples) {
+            long[] sorted;
+            synchronized (this) {
+                if (size < minSamples) {
+                    return -1;
+                }
+                sorted = Arrays.copyOf(nanos, size);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
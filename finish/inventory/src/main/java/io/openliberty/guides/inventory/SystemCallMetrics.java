@@ -0,0 +1,139 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class SystemCallMetrics {
+
+    static final String CALL_DURATION = "inventory.system.call.duration";
+    static final String CALL_SUCCESS = "inventory.system.call.success";
+    static final String CALL_FAILURE = "inventory.system.call.failure";
+    static final String CALL_TIMEOUT = "inventory.system.call.timeout";
+
+    @Inject
+    MetricRegistry registry;
+
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        registry.gauge(Metadata.builder()
+                           .withName("inventory.tasks.scheduled")
+                           .withDescription("Tasks waiting to start on the executor")
+                           .build(),
+                       scheduled, AtomicInteger::get);
+        registry.gauge(Metadata.builder()
+                           .withName("inventory.tasks.active")
+                           .withDescription("Tasks running on the executor")
+                           .build(),
+                       active, AtomicInteger::get);
+    }
+
+    public <T> T time(String operation, String hostname, Callable<T> call)
+        throws Exception {
+        Tag[] tags = tags(operation, hostname);
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            registry.counter(CALL_SUCCESS, tags).inc();
+            return result;
+        } catch (Exception e) {
+            // a call that is interrupted was given up by its caller, which
+            // counts it through timedOut() if it gave up because of a timeout
+            if (!isInterrupted(e)) {
+                registry.counter(isTimeout(e) ? CALL_TIMEOUT : CALL_FAILURE, tags).inc();
+            }
+            throw e;
+        } finally {
+            registry.timer(CALL_DURATION, tags)
+                    .update(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    // call when a caller stops waiting for a call because its time ran out
+    public void timedOut(String operation, String hostname) {
+        registry.counter(CALL_TIMEOUT, tags(operation, hostname)).inc();
+    }
+
+    // call once the system is removed from the inventory
+    public void forget(String hostname) {
+        String host = key(hostname);
+        registry.removeMatching((id, metric) ->
+            id.getName().startsWith("inventory.system.call.")
+            && host.equals(id.getTags().get("host")));
+    }
+
+    public void taskScheduled() {
+        scheduled.incrementAndGet();
+    }
+
+    public void taskStarted() {
+        scheduled.decrementAndGet();
+        active.incrementAndGet();
+    }
+
+    public void taskCancelled() {
+        scheduled.decrementAndGet();
+    }
+
+    public void taskFinished() {
+        active.decrementAndGet();
+    }
+
+    // tagged with the lower-cased hostname, like the inventory
+    private static Tag[] tags(String operation, String hostname) {
+        return new Tag[] { new Tag("host", key(hostname)), new Tag("operation", operation) };
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isInterrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException
+                || t instanceof InterruptedIOException && !(t instanceof SocketTimeoutException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+// publishing only appends to the bounded buffer of each subscriber, so the
+// threads that update the inventory never wait for a client
+@ApplicationScoped
+public class SystemEvents {
+
+    private static Logger logger = Logger.getLogger(SystemEvents.class.getName());
+
+    // shared with the streamed responses of InventoryResource
+    static final Jsonb JSONB = JsonbBuilder.create();
+
+    @Inject
+    @ConfigProperty(name = "inventory.events.bufferSize")
+    int bufferSize;
+
+    @Inject
+    @ConfigProperty(name = "inventory.events.sendTimeout")
+    long sendTimeout;
+
+    @Inject
+    @ConfigProperty(name = "inventory.executor.virtual")
+    boolean virtualThreads;
+
+    @Resource(lookup = InventoryAsyncTask.VIRTUAL_EXECUTOR)
+    ManagedExecutorService virtualExecutor;
+
+    @Resource(lookup = InventoryAsyncTask.PLATFORM_EXECUTOR)
+    ManagedExecutorService platformExecutor;
+
+    // the same executor as the system requests, which sends the events
+    ManagedExecutorService executor;
+
+    @Inject
+    MetricRegistry registry;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        executor = virtualThreads ? virtualExecutor : platformExecutor;
+        registry.gauge(Metadata.builder()
+                           .withName("inventory.events.subscribers")
+                           .withDescription("Open system event streams")
+                           .build(),
+                       subscribers, Set::size);
+        registry.gauge(Metadata.builder()
+                           .withName("inventory.events.dropped")
+                           .withDescription("Events dropped because a subscriber fell behind")
+                           .build(),
+                       dropped, AtomicLong::get);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (Subscriber s : subscribers) {
+            s.close();
+        }
+    }
+
+    public void subscribe(SseEventSink sink, Sse sse) {
+        subscribers.add(new Subscriber(sink, sse));
+    }
+
+    public void added(SystemData s) {
+        if (!subscribers.isEmpty()) {
+            publish("added", JSONB.toJson(s));
+        }
+    }
+
+    public void removed(String hostname) {
+        if (!subscribers.isEmpty()) {
+            publish("removed", Json.createObjectBuilder()
+                                   .add("hostname", hostname)
+                                   .build().toString());
+        }
+    }
+
+    // the memory usage or the system load is null when it did not change
+    public void updated(String hostname, Double memoryUsage, Double systemLoad) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        JsonObjectBuilder data = Json.createObjectBuilder().add("hostname", hostname);
+        if (memoryUsage != null) {
+            data.add("memoryUsage", memoryUsage);
+        }
+        if (systemLoad != null) {
+            data.add("systemLoad", systemLoad);
+        }
+        publish("updated", data.build().toString());
+    }
+
+    public void reset() {
+        if (!subscribers.isEmpty()) {
+            publish("reset", "{}");
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void publish(String name, String data) {
+        Event event = new Event(sequence.incrementAndGet(), name, data);
+        for (Subscriber s : subscribers) {
+            s.offer(event);
+        }
+    }
+
+    private record Event(long id, String name, String data) {
+    }
+
+    private class Subscriber {
+
+        private final SseEventSink sink;
+        private final Sse sse;
+        // guarded by this
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private boolean draining;
+
+        Subscriber(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        void offer(Event event) {
+            synchronized (this) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped.incrementAndGet();
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to start sending system events", e);
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (sink.isClosed()) {
+                    close();
+                    return;
+                }
+                try {
+                    sink.send(sse.newEventBuilder()
+                                 .id(Long.toString(event.id()))
+                                 .name(event.name())
+                                 .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                 .data(String.class, event.data())
+                                 .build())
+                        .toCompletableFuture()
+                        .get(sendTimeout, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    return;
+                } catch (Exception e) {
+                    // the client went away or stopped reading
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            synchronized (this) {
+                buffer.clear();
+            }
+            try {
+                sink.close();
+            } catch (Exception e) {
+                logger.log(Level.FINE, "Failed to close an event stream", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class SystemHistory {
+
+    @Inject
+    @ConfigProperty(name = "inventory.history.capacity")
+    int capacity;
+
+    // keyed by the lower-cased hostname, holds only the systems in the
+    // inventory so that a refresh that ends after its system was removed
+    // cannot bring the history back
+    private final Map<String, HostHistory> hosts = new ConcurrentHashMap<>();
+
+    // call when the system is added to the inventory
+    public void add(String hostname) {
+        hosts.computeIfAbsent(key(hostname), k -> new HostHistory(capacity));
+    }
+
+    public void recordMemoryUsage(String hostname, Double memoryUsage) {
+        HostHistory h = hosts.get(key(hostname));
+        if (h != null && memoryUsage != null) {
+            h.memoryUsage.add(System.currentTimeMillis(), memoryUsage);
+        }
+    }
+
+    public void recordSystemLoad(String hostname, Double systemLoad) {
+        HostHistory h = hosts.get(key(hostname));
+        if (h != null && systemLoad != null) {
+            h.systemLoad.add(System.currentTimeMillis(), systemLoad);
+        }
+    }
+
+    public MetricHistory getMemoryUsage(String hostname) {
+        HostHistory h = hosts.get(key(hostname));
+        return h == null ? null : h.memoryUsage;
+    }
+
+    public MetricHistory getSystemLoad(String hostname) {
+        HostHistory h = hosts.get(key(hostname));
+        return h == null ? null : h.systemLoad;
+    }
+
+    public void remove(String hostname) {
+        hosts.remove(key(hostname));
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    private static class HostHistory {
+
+        private final MetricHistory memoryUsage;
+        private final MetricHistory systemLoad;
+
+        HostHistory(int capacity) {
+            memoryUsage = new MetricHistory(capacity);
+            systemLoad = new MetricHistory(capacity);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+// polls every system at its own adaptive interval when inventory.poll.enabled
+// is set
+@ApplicationScoped
+public class SystemPoller {
+
+    private static Logger logger = Logger.getLogger(SystemPoller.class.getName());
+
+    @Inject
+    @ConfigProperty(name = "inventory.poll.enabled")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "inventory.poll.interval")
+    long interval;
+
+    @Inject
+    @ConfigProperty(name = "inventory.poll.minInterval")
+    long minInterval;
+
+    @Inject
+    @ConfigProperty(name = "inventory.poll.maxInterval")
+    long maxInterval;
+
+    // the relative change of a metric above which a host counts as volatile
+    @Inject
+    @ConfigProperty(name = "inventory.poll.changeThreshold")
+    double changeThreshold;
+
+    @Inject
+    InventoryManager manager;
+
+    @Inject
+    InventoryAsyncTask task;
+
+    @Resource
+    ManagedScheduledExecutorService managedExecutor;
+
+    // keyed by the lower-cased hostname
+    private final Map<String, ScheduledFuture<?>> polls = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> reconciler;
+
+    public void start(@Observes @Initialized(ApplicationScoped.class) Object context) {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Polling systems every " + interval + " seconds");
+        reconciler = managedExecutor.scheduleWithFixedDelay(
+            this::reconcile, 0, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.cancel(false);
+        }
+        polls.values().forEach(poll -> poll.cancel(false));
+        polls.clear();
+    }
+
+    private void reconcile() {
+        Set<String> hosts = new HashSet<>();
+        for (SystemData s : manager.getSystems()) {
+            String hostname = s.getHostname();
+            String key = hostname.toLowerCase(Locale.ROOT);
+            hosts.add(key);
+            polls.computeIfAbsent(key, k -> schedule(hostname));
+        }
+        polls.entrySet().removeIf(poll -> {
+            if (hosts.contains(poll.getKey())) {
+                return false;
+            }
+            poll.getValue().cancel(false);
+            return true;
+        });
+    }
+
+    private ScheduledFuture<?> schedule(String hostname) {
+        long period = TimeUnit.SECONDS.toMillis(interval);
+        long jitter = ThreadLocalRandom.current().nextLong(period);
+        AdaptiveTrigger trigger = new AdaptiveTrigger(period,
+            TimeUnit.SECONDS.toMillis(minInterval),
+            TimeUnit.SECONDS.toMillis(maxInterval),
+            changeThreshold, jitter);
+        // the trigger reads the refreshed system, or the failure, from the
+        // returned future
+        return managedExecutor.schedule(() -> {
+            // look up the system on every run because a reset replaces it
+            SystemData s = manager.getSystem(hostname);
+            return s == null ? null : task.refreshSystemUsage(s, 0);
+        }, trigger);
+    }
+}
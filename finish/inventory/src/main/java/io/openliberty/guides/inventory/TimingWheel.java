@@ -0,0 +1,202 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// the due tasks run in batches on the executor, so they must be short
+public class TimingWheel {
+
+    private static Logger logger = Logger.getLogger(TimingWheel.class.getName());
+
+    private final ScheduledExecutorService executor;
+    private final long tickNanos;
+    private final int batchSize;
+    private final Bucket[] buckets;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private long start;
+    // the last tick whose bucket was emptied of due tasks, written by the
+    // ticker while it holds the lock of that bucket
+    private volatile long processed;
+    private ScheduledFuture<?> ticker;
+
+    public TimingWheel(ScheduledExecutorService executor, long tickMillis,
+                       int size, int batchSize) {
+        this.executor = executor;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.batchSize = batchSize;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public void start() {
+        start = System.nanoTime();
+        ticker = executor.scheduleAtFixedRate(this::tick,
+            tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+    }
+
+    // Runs the task on the executor once the delay has passed, rounded up to
+    // the next tick.
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long due = (System.nanoTime() - start + unit.toNanos(delay) + tickNanos - 1)
+                   / tickNanos;
+        Timeout timeout = new Timeout(task, due);
+        pending.incrementAndGet();
+        while (true) {
+            // a tick that is already processed is too late, so use the next one
+            long tick = Math.max(due, processed + 1);
+            Bucket bucket = bucket(tick);
+            synchronized (bucket) {
+                if (tick > processed) {
+                    bucket.add(timeout);
+                    return timeout;
+                }
+            }
+        }
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    private Bucket bucket(long tick) {
+        return buckets[(int) Math.floorMod(tick, (long) buckets.length)];
+    }
+
+    // Catches up with every tick that has passed since the last run, which
+    // may be several when the executor is busy.
+    void tick() {
+        long now = (System.nanoTime() - start) / tickNanos;
+        List<Runnable> due = new ArrayList<>();
+        for (long tick = processed + 1; tick <= now; tick++) {
+            Bucket bucket = bucket(tick);
+            synchronized (bucket) {
+                processed = tick;
+                bucket.expire(tick, due);
+            }
+        }
+        pending.addAndGet(-due.size());
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<Runnable> batch = due.subList(i, Math.min(i + batchSize, due.size()));
+            Runnable run = () -> {
+                for (Runnable task : batch) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, "A delayed task failed", e);
+                    }
+                }
+            };
+            try {
+                executor.execute(run);
+            } catch (RuntimeException e) {
+                // an exception would stop the ticker for good, and the tasks
+                // are short, so the ticker runs them itself
+                logger.log(Level.FINE, "The executor rejected delayed tasks", e);
+                run.run();
+            }
+        }
+    }
+
+    // linked into the list of its bucket until it is due or cancelled
+    public class Timeout {
+
+        private final Runnable task;
+        private final long due;
+
+        // written under the lock of the bucket, and read without it by cancel()
+        private volatile Bucket bucket;
+        // guarded by the lock of the bucket
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(Runnable task, long due) {
+            this.task = task;
+            this.due = due;
+        }
+
+        // returns false if the task was already handed to the executor
+        public boolean cancel() {
+            Bucket b = bucket;
+            if (b == null) {
+                return false;
+            }
+            synchronized (b) {
+                if (bucket != b) {
+                    return false;
+                }
+                b.remove(this);
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+    }
+
+    // a doubly linked list, so that a cancelled task is unlinked in place
+    private static class Bucket {
+
+        private Timeout head;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.next = head;
+            if (head != null) {
+                head.prev = t;
+            }
+            head = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            }
+            t.bucket = null;
+            t.prev = null;
+            t.next = null;
+        }
+
+        // moves the tasks that are due by the tick, leaving those of later
+        // rounds of the wheel in place
+        void expire(long tick, List<Runnable> due) {
+            Timeout t = head;
+            while (t != null) {
+                Timeout next = t.next;
+                if (t.due <= tick) {
+                    remove(t);
+                    due.add(t.task);
+                }
+                t = next;
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@
 // end::copyright[]
 package io.openliberty.guides.inventory.client;
 
+import io.openliberty.guides.inventory.models.SystemSnapshot;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -40,4 +41,9 @@ public interface SystemClient extends AutoCloseable {
     @Produces(MediaType.TEXT_PLAIN)
     Long getMemoryUsed();
 
+    @GET
+    @Path("/snapshot")
+    @Produces(MediaType.APPLICATION_JSON)
+    SystemSnapshot getSnapshot();
+
 }
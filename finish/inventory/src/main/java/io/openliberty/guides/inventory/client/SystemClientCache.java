@@ -0,0 +1,294 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.RestClientBuilder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// a client that is evicted while a call uses it is closed when the call ends
+@ApplicationScoped
+public class SystemClientCache {
+
+    private static Logger logger = Logger.getLogger(SystemClientCache.class.getName());
+
+    @Inject
+    @ConfigProperty(name = "client.http.port")
+    String CLIENT_PORT;
+
+    @Inject
+    @ConfigProperty(name = "client.cache.maxSize")
+    int maxSize;
+
+    @Inject
+    @ConfigProperty(name = "client.cache.idleTimeout")
+    long idleTimeout;
+
+    @Inject
+    @ConfigProperty(name = "client.connectTimeout")
+    long connectTimeout;
+
+    @Inject
+    @ConfigProperty(name = "client.readTimeout")
+    long readTimeout;
+
+    @Resource
+    ManagedScheduledExecutorService managedExecutor;
+
+    // keyed by the lower-cased hostname
+    private final Map<String, CachedClient> clients = new ConcurrentHashMap<>();
+
+    // The clients in the order they were cached, which eviction goes round
+    // like a clock. It can still hold clients that were removed since, and
+    // those are dropped when eviction or the idle sweep comes to them.
+    private final Queue<CachedClient> order = new ConcurrentLinkedQueue<>();
+
+    // only one caller at a time evicts
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private ScheduledFuture<?> sweeper;
+
+    @PostConstruct
+    public void init() {
+        sweeper = managedExecutor.scheduleWithFixedDelay(
+            this::evictIdle, idleTimeout, idleTimeout, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.cancel(false);
+        }
+        for (String key : clients.keySet()) {
+            CachedClient c = clients.remove(key);
+            if (c != null && c.retire()) {
+                c.close();
+            }
+        }
+    }
+
+    public <T> T call(String hostname, Function<SystemClient, T> request) {
+        CachedClient cached = acquire(hostname);
+        try {
+            return request.apply(cached.client);
+        } finally {
+            if (cached.release()) {
+                cached.close();
+            }
+        }
+    }
+
+    public void invalidate(String hostname) {
+        CachedClient removed = clients.remove(key(hostname));
+        if (removed != null && removed.retire()) {
+            removed.close();
+        }
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // A hit only leases the cached client. A miss builds the client without
+    // holding any lock and keeps it unless another caller got there first.
+    private CachedClient acquire(String hostname) {
+        String key = key(hostname);
+        while (true) {
+            CachedClient cached = clients.get(key);
+            if (cached != null) {
+                if (cached.lease()) {
+                    hits.increment();
+                    return cached;
+                }
+                // retired by an eviction that has not removed it yet
+                clients.remove(key, cached);
+                continue;
+            }
+            CachedClient created = new CachedClient(key, hostname, build(hostname));
+            created.lease();
+            CachedClient raced = clients.putIfAbsent(key, created);
+            if (raced != null) {
+                // never shared, so it can be closed at once
+                created.close();
+                continue;
+            }
+            misses.increment();
+            order.offer(created);
+            evictOverflow();
+            return created;
+        }
+    }
+
+    // Gives every client used since the hand last passed it a second chance,
+    // so each eviction takes constant time on average instead of a scan for
+    // the least recently used client.
+    private void evictOverflow() {
+        if (clients.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+        List<CachedClient> closing = new ArrayList<>();
+        try {
+            while (clients.size() > maxSize) {
+                CachedClient c = order.poll();
+                if (c == null) {
+                    break;
+                }
+                if (clients.get(c.key) != c) {
+                    continue;
+                }
+                if (c.referenced) {
+                    c.referenced = false;
+                    order.offer(c);
+                    continue;
+                }
+                if (clients.remove(c.key, c)) {
+                    evictions.increment();
+                    if (c.retire()) {
+                        closing.add(c);
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        for (CachedClient c : closing) {
+            c.close();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleTimeout);
+        for (Map.Entry<String, CachedClient> e : clients.entrySet()) {
+            CachedClient c = e.getValue();
+            if (c.retireIfIdle(cutoff) && clients.remove(e.getKey(), c)) {
+                evictions.increment();
+                logger.info("Closing idle client for " + c.hostname);
+                c.close();
+            }
+        }
+        order.removeIf(c -> clients.get(c.key) != c);
+    }
+
+    private SystemClient build(String hostname) {
+        String customURIString = "http://" + hostname + ":" + CLIENT_PORT + "/api";
+        URI customURI = URI.create(customURIString);
+        return RestClientBuilder.newBuilder()
+                                .baseUri(customURI)
+                                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                                .register(UnknownUriExceptionMapper.class)
+                                .build(SystemClient.class);
+    }
+
+    private static String key(String hostname) {
+        return hostname.toLowerCase(Locale.ROOT);
+    }
+
+    private static class CachedClient {
+
+        private final String key;
+        private final String hostname;
+        private final SystemClient client;
+        private volatile long lastUsed = System.nanoTime();
+        // set by every lease and cleared as the eviction hand passes
+        private volatile boolean referenced;
+        // guarded by this
+        private int leases;
+        private boolean retired;
+
+        CachedClient(String key, String hostname, SystemClient client) {
+            this.key = key;
+            this.hostname = hostname;
+            this.client = client;
+        }
+
+        synchronized boolean lease() {
+            if (retired) {
+                return false;
+            }
+            leases++;
+            lastUsed = System.nanoTime();
+            referenced = true;
+            return true;
+        }
+
+        // reports whether the client was retired while leased and can be
+        // closed now
+        synchronized boolean release() {
+            leases--;
+            lastUsed = System.nanoTime();
+            return retired && leases == 0;
+        }
+
+        // marks the client as evicted and reports whether it can be closed now
+        synchronized boolean retire() {
+            if (retired) {
+                return false;
+            }
+            retired = true;
+            return leases == 0;
+        }
+
+        synchronized boolean retireIfIdle(long cutoff) {
+            if (retired || leases > 0 || lastUsed - cutoff >= 0) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+
+        void close() {
+            try {
+                client.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -13,15 +13,19 @@ package io.openliberty.guides.inventory.models;
 
 import java.io.Serializable;
 
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "SystemData")
 @NamedQuery(name = "SystemData.findAll", query = "SELECT sd FROM SystemData sd")
+@NamedQuery(name = "SystemData.deleteByHostnames",
+            query = "DELETE FROM SystemData sd WHERE sd.hostname IN :hostnames")
 public class SystemData implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -42,6 +46,15 @@ public class SystemData implements Serializable {
     private Double memoryUsage = 0.0;
     private Double systemLoad = 0.0;
 
+    // one of the HostHealth states, which are not persisted
+    @Transient
+    private volatile String health = "up";
+
+    // assigned by the inventory whenever the system is added or refreshed
+    @Transient
+    @JsonbTransient
+    private volatile long version;
+
     public SystemData() {
     }
 
@@ -100,6 +113,22 @@ public class SystemData implements Serializable {
         this.memoryUsage = memoryUsage;
     }
 
+    public String getHealth() {
+        return this.health;
+    }
+
+    public void setHealth(String health) {
+        this.health = health;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void setMemoryUsed(Long memoryUsed) {
         this.memoryUsage = ((double) memoryUsed) / this.heapSize;
     }
@@ -0,0 +1,111 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.enterprise.concurrent.LastExecution;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveTriggerTest {
+
+    private final AdaptiveTrigger trigger =
+        new AdaptiveTrigger(8000, 1000, 20000, 0.1, 0);
+
+    // a last execution whose task returned the given result
+    private LastExecution returned(Object result) {
+        return (LastExecution) Proxy.newProxyInstance(
+            LastExecution.class.getClassLoader(),
+            new Class<?>[] { LastExecution.class },
+            (proxy, method, args) ->
+                method.getName().equals("getResult") ? result : null);
+    }
+
+    private CompletableFuture<SystemData> refreshed(double memoryUsage,
+                                                    double systemLoad) {
+        SystemData s = new SystemData("host", "Linux", "21", 1L << 30);
+        s.setMemoryUsage(memoryUsage);
+        s.setSystemLoad(systemLoad);
+        return CompletableFuture.completedFuture(s);
+    }
+
+    private boolean run(Object result) {
+        return trigger.skipRun(returned(result), ZonedDateTime.now());
+    }
+
+    @Test
+    public void testFirstRefreshKeepsInterval() {
+        assertFalse(run(refreshed(0.5, 1.0)));
+        assertEquals(8000, trigger.getInterval());
+    }
+
+    @Test
+    public void testHalvesWhenValuesMove() {
+        run(refreshed(0.5, 1.0));
+        run(refreshed(0.5, 1.5));
+        assertEquals(4000, trigger.getInterval());
+        run(refreshed(0.8, 1.5));
+        assertEquals(2000, trigger.getInterval());
+    }
+
+    @Test
+    public void testGrowsWhenValuesStayPut() {
+        run(refreshed(0.5, 1.0));
+        run(refreshed(0.5, 1.05));
+        assertEquals(12000, trigger.getInterval());
+    }
+
+    @Test
+    public void testStaysWithinBounds() {
+        run(refreshed(0.5, 1.0));
+        for (int i = 0; i < 10; i++) {
+            run(refreshed(0.5, 1.0));
+        }
+        assertEquals(20000, trigger.getInterval());
+        for (int i = 0; i < 10; i++) {
+            run(refreshed(i % 2 == 0 ? 0.1 : 0.9, 1.0));
+        }
+        assertEquals(1000, trigger.getInterval());
+    }
+
+    @Test
+    public void testSkipsWhileRefreshRuns() {
+        CompletableFuture<SystemData> refresh = new CompletableFuture<>();
+        assertTrue(run(refresh));
+        refresh.complete(refreshed(0.5, 1.0).join());
+        assertFalse(run(refresh));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsInterval() {
+        run(refreshed(0.5, 1.0));
+        assertFalse(run(CompletableFuture.failedFuture(new RuntimeException())));
+        assertEquals(8000, trigger.getInterval());
+        // the next change is measured against the last refreshed values
+        run(refreshed(0.5, 1.05));
+        assertEquals(12000, trigger.getInterval());
+    }
+
+    @Test
+    public void testRunsWhenSystemWasRemoved() {
+        assertFalse(trigger.skipRun(null, ZonedDateTime.now()));
+        assertFalse(run(null));
+        assertEquals(8000, trigger.getInterval());
+    }
+}
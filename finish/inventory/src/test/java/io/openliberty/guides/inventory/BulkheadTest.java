@@ -0,0 +1,110 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BulkheadTest {
+
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void teardown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private void block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testSaturatedBulkheadDoesNotBlockAnother() throws Exception {
+        Bulkhead refresh = new Bulkhead("refresh", executor, 2, 10);
+        Bulkhead registration = new Bulkhead("registration", executor, 2, 10);
+        for (int i = 0; i < 10; i++) {
+            refresh.execute(this::block);
+        }
+        assertEquals(2, refresh.getRunning());
+        assertEquals(8, refresh.getQueued());
+
+        // registrations start at once on the same executor
+        Future<String> registered = registration.submit(() -> "registered");
+        assertEquals("registered", registered.get(5, TimeUnit.SECONDS));
+        assertEquals(2, refresh.getRunning());
+        assertEquals(0, refresh.getRejected());
+        assertEquals(0, registration.getRejected());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() {
+        Bulkhead sampling = new Bulkhead("sampling", executor, 1, 2);
+        sampling.execute(this::block);
+        sampling.execute(this::block);
+        sampling.execute(this::block);
+        assertEquals(1, sampling.getRunning());
+        assertEquals(2, sampling.getQueued());
+        assertThrows(RejectedExecutionException.class,
+            () -> sampling.execute(this::block));
+        assertEquals(1, sampling.getRejected());
+    }
+
+    @Test
+    public void testRunsQueuedTasksWhenRoomFrees() throws Exception {
+        Bulkhead refresh = new Bulkhead("refresh", executor, 1, 5);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            refresh.execute(() -> {
+                block();
+                done.countDown();
+            });
+        }
+        assertEquals(2, refresh.getQueued());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, refresh.getQueued());
+    }
+
+    @Test
+    public void testCancelsTaskTheExecutorRejects() {
+        executor.shutdown();
+        Bulkhead refresh = new Bulkhead("refresh", executor, 1, 1);
+        Future<String> future = refresh.submit(() -> "refreshed");
+        assertTrue(future.isCancelled());
+        assertEquals(0, refresh.getRunning());
+        assertEquals(1, refresh.getRejected());
+    }
+}
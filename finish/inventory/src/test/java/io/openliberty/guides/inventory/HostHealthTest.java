@@ -0,0 +1,87 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class HostHealthTest {
+
+    private static final String HOST = "dead.example.com";
+
+    private HostHealth health(long backoff) {
+        HostHealth health = new HostHealth();
+        health.failureThreshold = 3;
+        health.initialBackoff = backoff;
+        health.maxBackoff = backoff;
+        return health;
+    }
+
+    private void open(HostHealth health) {
+        assertNull(health.failure(HOST));
+        assertNull(health.failure(HOST));
+        assertEquals(HostHealth.DOWN, health.failure(HOST));
+    }
+
+    @Test
+    public void testOpensAfterThreshold() {
+        HostHealth health = health(60000);
+        assertEquals(HostHealth.UP, health.allow(HOST));
+        open(health);
+        assertEquals(HostHealth.DOWN, health.getState(HOST));
+        assertNull(health.allow(HOST));
+        // a call that started before the circuit opened changes nothing
+        assertNull(health.failure(HOST));
+    }
+
+    @Test
+    public void testProbeClosesCircuit() {
+        HostHealth health = health(0);
+        open(health);
+        assertEquals(HostHealth.PROBING, health.allow(HOST));
+        // only one probe at a time
+        assertNull(health.allow(HOST));
+        assertEquals(HostHealth.UP, health.success(HOST));
+        assertEquals(HostHealth.UP, health.getState(HOST));
+        assertEquals(HostHealth.UP, health.allow(HOST));
+    }
+
+    @Test
+    public void testFailedProbeReopens() {
+        HostHealth health = health(0);
+        open(health);
+        assertEquals(HostHealth.PROBING, health.allow(HOST));
+        assertEquals(HostHealth.DOWN, health.failure(HOST));
+        assertEquals(HostHealth.DOWN, health.getState(HOST));
+    }
+
+    @Test
+    public void testAbandonedProbeRetries() {
+        HostHealth health = health(0);
+        open(health);
+        assertEquals(HostHealth.PROBING, health.allow(HOST));
+        assertEquals(HostHealth.DOWN, health.abandon(HOST));
+        assertEquals(HostHealth.PROBING, health.allow(HOST));
+        assertEquals(HostHealth.UP, health.success(HOST));
+    }
+
+    @Test
+    public void testAbandonWithoutProbe() {
+        HostHealth health = health(0);
+        assertNull(health.abandon(HOST));
+        open(health);
+        assertNull(health.abandon(HOST));
+        assertEquals(HostHealth.DOWN, health.getState(HOST));
+    }
+}
@@ -0,0 +1,198 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RequestHedgerTest {
+
+    private static final String HOST = "Slow.Example.com";
+    private static final String OPERATION = "getSystemLoad";
+
+    private final Map<MetricID, AtomicLong> counters = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private RequestHedger hedger;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        hedger = new RequestHedger();
+        hedger.enabled = true;
+        hedger.percentile = 50;
+        hedger.budget = 1;
+        hedger.minSamples = 5;
+        hedger.registry = registry();
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    // keeps the counters in a map, so that the test can read and remove them
+    private MetricRegistry registry() {
+        return (MetricRegistry) Proxy.newProxyInstance(
+            MetricRegistry.class.getClassLoader(),
+            new Class<?>[] { MetricRegistry.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "counter" -> counter(counters.computeIfAbsent(
+                    new MetricID((String) args[0], (Tag[]) args[1]),
+                    id -> new AtomicLong()));
+                case "remove" -> counters.remove((MetricID) args[0]) != null;
+                default -> throw new AssertionError(method.getName());
+            });
+    }
+
+    private Counter counter(AtomicLong count) {
+        return (Counter) Proxy.newProxyInstance(
+            Counter.class.getClassLoader(),
+            new Class<?>[] { Counter.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "inc" -> count.addAndGet(args == null ? 1 : (long) args[0]);
+                case "getCount" -> count.get();
+                default -> throw new AssertionError(method.getName());
+            });
+    }
+
+    private long count(String name) {
+        AtomicLong count = counters.get(new MetricID(name,
+            new Tag("host", "slow.example.com"), new Tag("operation", OPERATION)));
+        return count == null ? 0 : count.get();
+    }
+
+    private <T> T call(Callable<T> call) throws Exception {
+        return hedger.call(OPERATION, HOST, executor, executor, call);
+    }
+
+    // fills the latency window without hedging, while every call still earns
+    // its share of the budget
+    private void warmUp(int calls, long millis) throws Exception {
+        int minSamples = hedger.minSamples;
+        hedger.minSamples = Integer.MAX_VALUE;
+        for (int i = 0; i < calls; i++) {
+            call(() -> {
+                Thread.sleep(millis);
+                return "warm";
+            });
+        }
+        hedger.minSamples = minSamples;
+    }
+
+    @Test
+    public void testNoHedgeWithinPercentile() throws Exception {
+        warmUp(10, 200);
+        assertEquals("fast", call(() -> {
+            Thread.sleep(20);
+            return "fast";
+        }));
+        assertEquals(0, hedger.getSentCount());
+    }
+
+    @Test
+    public void testHedgeAfterPercentileAndCancelLoser() throws Exception {
+        warmUp(10, 100);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        String result = call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "primary";
+            }
+            return "hedge";
+        });
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("hedge", result);
+        // the hedge waits for the median latency of the window
+        assertTrue(elapsed >= 100 && elapsed < 5000, "answered after " + elapsed);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the primary was not cancelled");
+        assertEquals(1, hedger.getSentCount());
+        assertEquals(1, hedger.getWonCount());
+        assertEquals(1, count(RequestHedger.HEDGE_SENT));
+        assertEquals(1, count(RequestHedger.HEDGE_WON));
+    }
+
+    @Test
+    public void testBudgetCapsHedges() throws Exception {
+        hedger.budget = 0.1;
+        // 20 calls earn two hedges
+        warmUp(20, 0);
+        for (int i = 0; i < 5; i++) {
+            call(() -> {
+                Thread.sleep(50);
+                return "slow";
+            });
+        }
+        // the five slow calls only earn half a hedge
+        assertEquals(2, hedger.getSentCount());
+    }
+
+    @Test
+    public void testRejectedHedgeKeepsToken() throws Exception {
+        hedger.budget = 0.1;
+        // 10 calls earn one hedge
+        warmUp(10, 0);
+        Bulkhead full = new Bulkhead("full", executor, 1, 0);
+        assertEquals("slow", hedger.call(OPERATION, HOST, executor, full, () -> {
+            Thread.sleep(50);
+            return "slow";
+        }));
+        assertEquals(0, hedger.getSentCount());
+        assertEquals(1, full.getRejected());
+
+        // the token that was given back pays for the next hedge
+        call(() -> {
+            Thread.sleep(50);
+            return "slow";
+        });
+        assertEquals(1, hedger.getSentCount());
+    }
+
+    @Test
+    public void testForgetRemovesCounters() throws Exception {
+        warmUp(5, 0);
+        call(() -> {
+            Thread.sleep(100);
+            return "slow";
+        });
+        assertEquals(1, count(RequestHedger.HEDGE_SENT));
+
+        hedger.forget("SLOW.example.COM");
+        assertTrue(counters.isEmpty(), "left " + counters.keySet());
+    }
+}
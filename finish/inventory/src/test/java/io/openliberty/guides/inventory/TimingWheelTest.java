@@ -0,0 +1,149 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    private static final long TICK = 50;
+
+    private ManualExecutor executor;
+    private TimingWheel wheel;
+    private List<String> ran;
+
+    // runs the due tasks but leaves the ticking to the test
+    private static class ManualExecutor extends ScheduledThreadPoolExecutor {
+
+        ManualExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+            long initialDelay, long period, TimeUnit unit) {
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        executor = new ManualExecutor();
+        wheel = new TimingWheel(executor, TICK, 4, 2);
+        wheel.start();
+        ran = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    public void teardown() {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    private Runnable record(String name, CountDownLatch done) {
+        return () -> {
+            ran.add(name);
+            done.countDown();
+        };
+    }
+
+    @Test
+    public void testRunsTaskWhenDue() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        wheel.schedule(record("a", done), 2 * TICK, TimeUnit.MILLISECONDS);
+        assertEquals(1, wheel.getPending());
+        wheel.tick();
+        assertTrue(ran.isEmpty());
+
+        Thread.sleep(3 * TICK);
+        wheel.tick();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a"), ran);
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        TimingWheel.Timeout timeout =
+            wheel.schedule(record("a", done), TICK, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.getPending());
+
+        Thread.sleep(2 * TICK);
+        wheel.tick();
+        assertFalse(done.await(3 * TICK, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testKeepsTaskOfLaterRound() throws Exception {
+        // the wheel has 4 buckets, so this task shares a bucket with an
+        // earlier tick and must be left there on the first pass
+        CountDownLatch done = new CountDownLatch(1);
+        TimingWheel.Timeout timeout =
+            wheel.schedule(record("late", done), 7 * TICK, TimeUnit.MILLISECONDS);
+        Thread.sleep(4 * TICK);
+        wheel.tick();
+        assertFalse(done.await(TICK, TimeUnit.MILLISECONDS));
+        assertEquals(1, wheel.getPending());
+
+        Thread.sleep(4 * TICK);
+        wheel.tick();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testCatchesUpMissedTicks() throws Exception {
+        CountDownLatch done = new CountDownLatch(5);
+        for (int i = 1; i <= 5; i++) {
+            wheel.schedule(record("t" + i, done), i * TICK, TimeUnit.MILLISECONDS);
+        }
+        // one tick after all of them were due runs them all, in batches of 2
+        Thread.sleep(7 * TICK);
+        wheel.tick();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(5, ran.size());
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void testRunsTasksWhenExecutorRejects() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        wheel.schedule(record("a", done), TICK, TimeUnit.MILLISECONDS);
+        executor.shutdown();
+        Thread.sleep(2 * TICK);
+        wheel.tick();
+        assertEquals(List.of("a"), ran);
+
+        // the ticker keeps going after a rejection
+        CountDownLatch again = new CountDownLatch(1);
+        wheel.schedule(record("b", again), TICK, TimeUnit.MILLISECONDS);
+        Thread.sleep(2 * TICK);
+        wheel.tick();
+        assertEquals(List.of("a", "b"), ran);
+    }
+}
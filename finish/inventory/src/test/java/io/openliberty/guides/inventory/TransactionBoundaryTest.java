@@ -0,0 +1,53 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.transaction.Transactional;
+
+public class TransactionBoundaryTest {
+
+    // The resource and the async task call the remote system hosts, so a
+    // transaction there would stay open while waiting for a slow host.
+    @Test
+    public void testProbesRunOutsideTransactions() {
+        for (Class<?> type : new Class<?>[] { InventoryResource.class,
+                                              InventoryAsyncTask.class }) {
+            assertFalse(type.isAnnotationPresent(Transactional.class),
+                type.getSimpleName() + " is transactional");
+            for (Method method : type.getDeclaredMethods()) {
+                assertFalse(method.isAnnotationPresent(Transactional.class),
+                    type.getSimpleName() + "." + method.getName() + " is transactional");
+            }
+        }
+    }
+
+    @Test
+    public void testWritesRunInTransactions() throws Exception {
+        assertTrue(InventoryManager.class.getMethod("add", SystemData.class)
+            .isAnnotationPresent(Transactional.class));
+        assertTrue(InventoryManager.class.getMethod("addAll", List.class)
+            .isAnnotationPresent(Transactional.class));
+        assertTrue(InventoryManager.class.getMethod("removeSystem", String.class)
+            .isAnnotationPresent(Transactional.class));
+        assertTrue(InventoryManager.class.getMethod("removeAll", List.class)
+            .isAnnotationPresent(Transactional.class));
+    }
+}
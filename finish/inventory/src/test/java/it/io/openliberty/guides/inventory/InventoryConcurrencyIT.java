@@ -0,0 +1,128 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package it.io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
+
+public class InventoryConcurrencyIT {
+
+    private static final String PORT = System.getProperty("http.port");
+    private static final String URL = "http://localhost:" + PORT + "/api";
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int CYCLES = 3;
+
+    private static ResteasyClient resteasyClient;
+
+    private static InventoryResourceClient client;
+
+    @BeforeAll
+    public static void setup() {
+        resteasyClient = ((ResteasyClientBuilder) ResteasyClientBuilder.newBuilder())
+                             .connectionPoolSize(WRITERS + READERS)
+                             .build();
+        ResteasyWebTarget target = resteasyClient.target(UriBuilder.fromPath(URL));
+        client = target.proxy(InventoryResourceClient.class);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        resteasyClient.close();
+    }
+
+    // Each writer registers and removes its own loopback alias while the
+    // readers keep listing the inventory. Any concurrent modification of the
+    // inventory while it is listed fails the listing with a server error.
+    @Test
+    public void testMixedAddRemoveList() throws Exception {
+        List<String> hosts = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            hosts.add("127.0.0." + (i + 2));
+        }
+        assumeTrue(InetAddress.getByName(hosts.get(0)).isReachable(1000),
+            "loopback aliases are not available on this platform");
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (String host : hosts) {
+                writers.add(pool.submit(() -> {
+                    for (int c = 0; c < CYCLES; c++) {
+                        assertOk(client.addSystemClient(host));
+                        assertOk(client.removeSystem(host));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(pool.submit(() -> {
+                    int lists = 0;
+                    while (writing.get()) {
+                        client.listContents();
+                        lists++;
+                    }
+                    return lists;
+                }));
+            }
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get(2, TimeUnit.MINUTES);
+                }
+            } finally {
+                writing.set(false);
+            }
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (String host : hosts) {
+            assertNull(client.getSystem(host));
+        }
+    }
+
+    private void assertOk(Response response) {
+        try {
+            assertEquals(200, response.getStatus(),
+                response.readEntity(String.class));
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -12,10 +12,21 @@
 package it.io.openliberty.guides.inventory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringReader;
 import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
@@ -27,7 +38,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
 import io.openliberty.guides.inventory.models.SystemData;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
 import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
 
 
@@ -37,14 +61,19 @@ public class InventoryEndpointIT {
     private static final String PORT = System.getProperty("http.port");
     private static final String URL = "http://localhost:" + PORT + "/api";
 
+    // how long a test waits for the inventory to catch up
+    private static final long POLL_TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+
     private static String hostname;
 
+    private static ResteasyClient resteasyClient;
+
     private static InventoryResourceClient client;
 
     @BeforeAll
     public static void setup() throws Exception {
         ClientBuilder builder = ResteasyClientBuilder.newBuilder();
-        ResteasyClient resteasyClient = (ResteasyClient) builder.build();
+        resteasyClient = (ResteasyClient) builder.build();
         ResteasyWebTarget target = resteasyClient.target(UriBuilder.fromPath(URL));
         client = target.proxy(InventoryResourceClient.class);
         hostname = InetAddress.getLocalHost().getHostName();
@@ -135,4 +164,331 @@ public class InventoryEndpointIT {
         assertSystem(hostname, true, true);
     }
     // end::testRemoveSystem[]
+
+    // tag::testAddSystemClients[]
+    @Test
+    @Order(6)
+    public void testAddSystemClients() throws Exception {
+        Response response = client.addSystemClients(List.of("127.0.0.1", "localhost"));
+        assertEquals(200, response.getStatus());
+        JsonReader reader = Json.createReader(
+            new StringReader(response.readEntity(String.class)));
+        JsonObject results = reader.readObject();
+        reader.close();
+        assertEquals("added", results.getString("127.0.0.1"));
+        assertEquals("exists", results.getString("localhost"));
+        assertEquals(3, client.listContents().size());
+        assertSystem("127.0.0.1", true, true);
+        client.removeSystem("127.0.0.1");
+        assertEquals(2, client.listContents().size());
+    }
+    // end::testAddSystemClients[]
+
+    // tag::testGetSystemHistory[]
+    @Test
+    @Order(7)
+    public void testGetSystemHistory() throws Exception {
+        Response response = client.getSystemHistory("localhost", 3600, 3600);
+        assertEquals(200, response.getStatus());
+        JsonReader reader = Json.createReader(
+            new StringReader(response.readEntity(String.class)));
+        JsonObject history = reader.readObject();
+        reader.close();
+        for (String metric : List.of("memoryUsage", "systemLoad")) {
+            JsonArray steps = history.getJsonArray(metric);
+            assertEquals(1, steps.size(), metric + " = " + steps);
+            JsonObject step = steps.getJsonObject(0);
+            assertTrue(step.getInt("count") > 0, metric + " = " + step);
+            assertTrue(step.getJsonNumber("min").doubleValue()
+                       <= step.getJsonNumber("avg").doubleValue(), metric + " = " + step);
+            assertTrue(step.getJsonNumber("avg").doubleValue()
+                       <= step.getJsonNumber("max").doubleValue(), metric + " = " + step);
+        }
+        assertEquals(400, client.getSystemHistory("localhost", 3600, 0).getStatus());
+        assertEquals(400, client.getSystemHistory("127.0.0.1", 3600, 60).getStatus());
+    }
+    // end::testGetSystemHistory[]
+
+    // tag::testListPages[]
+    @Test
+    @Order(8)
+    public void testListPages() throws Exception {
+        Response first = client.listPage(1, null);
+        assertEquals(200, first.getStatus());
+        List<SystemData> page = first.readEntity(new GenericType<List<SystemData>>() { });
+        assertEquals(1, page.size());
+        Link next = first.getLink("next");
+        assertNotNull(next, "the first page has no next link");
+        String after = page.get(0).getHostname();
+        assertTrue(next.getUri().getQuery().contains("after=" + after),
+            "next = " + next);
+
+        Response second = client.listPage(1, after);
+        assertEquals(200, second.getStatus());
+        List<SystemData> rest = second.readEntity(new GenericType<List<SystemData>>() { });
+        assertEquals(1, rest.size());
+        assertNotEquals(after, rest.get(0).getHostname());
+        assertNull(second.getLink("next"));
+
+        assertEquals(400, client.listPage(0, null).getStatus());
+    }
+    // end::testListPages[]
+
+    // tag::testConditionalGet[]
+    @Test
+    @Order(9)
+    public void testConditionalGet() throws Exception {
+        for (String path : List.of("/inventory/systems", "/inventory/system/localhost")) {
+            WebTarget target = resteasyClient.target(URL + path);
+            EntityTag etag;
+            try (Response first = target.request(MediaType.APPLICATION_JSON).get()) {
+                assertEquals(200, first.getStatus());
+                etag = first.getEntityTag();
+            }
+            assertNotNull(etag, path + " has no ETag");
+
+            try (Response unchanged = target.request(MediaType.APPLICATION_JSON)
+                                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                                            .get()) {
+                assertEquals(304, unchanged.getStatus(), path);
+            }
+        }
+
+        WebTarget target = resteasyClient.target(URL + "/inventory/system/localhost");
+        EntityTag etag;
+        try (Response before = target.request(MediaType.APPLICATION_JSON).get()) {
+            etag = before.getEntityTag();
+        }
+        client.updateMemoryUsed(0).close();
+        // the refresh runs in the background, so the ETag changes some time later
+        EntityTag changed = poll(() -> {
+            try (Response r = target.request(MediaType.APPLICATION_JSON)
+                                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                                    .get()) {
+                return r.getStatus() == 200 ? r.getEntityTag() : null;
+            }
+        }, Objects::nonNull);
+        assertNotNull(changed, "still not modified");
+        assertNotEquals(etag, changed);
+    }
+    // end::testConditionalGet[]
+
+    // Polls until the value is done or the timeout passes, and returns the
+    // last value either way, so that the assertions show what it was.
+    private static <T> T poll(Supplier<T> get, Predicate<T> done)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + POLL_TIMEOUT;
+        T value = get.get();
+        while (!done.test(value) && System.nanoTime() - deadline < 0) {
+            Thread.sleep(100);
+            value = get.get();
+        }
+        return value;
+    }
+
+    // tag::testGetChanges[]
+    @Test
+    @Order(10)
+    public void testGetChanges() throws Exception {
+        Response listing = resteasyClient.target(URL + "/inventory/systems")
+                                         .request(MediaType.APPLICATION_JSON).get();
+        long since = Long.parseLong(listing.getEntityTag().getValue());
+        listing.close();
+
+        client.addSystemClient("127.0.0.1");
+        JsonObject changes = getChanges(since);
+        assertFalse(changes.getBoolean("resync"));
+        assertEquals(1, changes.getJsonArray("changed").size(), changes.toString());
+        assertEquals("127.0.0.1", changes.getJsonArray("changed")
+                                         .getJsonObject(0).getString("hostname"));
+        long next = changes.getJsonNumber("version").longValue();
+        assertTrue(next > since);
+
+        client.removeSystem("127.0.0.1");
+        changes = getChanges(next);
+        assertEquals(0, changes.getJsonArray("changed").size(), changes.toString());
+        assertEquals("127.0.0.1", changes.getJsonArray("removed").getString(0));
+        changes = getChanges(since);
+        assertEquals(0, changes.getJsonArray("changed").size(), changes.toString());
+        assertEquals(1, changes.getJsonArray("removed").size(), changes.toString());
+
+        assertTrue(getChanges(0).getBoolean("resync"));
+    }
+    // end::testGetChanges[]
+
+    private JsonObject getChanges(long since) {
+        String json = resteasyClient.target(URL + "/inventory/systems/changes")
+                                    .queryParam("since", since)
+                                    .request(MediaType.APPLICATION_JSON)
+                                    .get(String.class);
+        JsonReader reader = Json.createReader(new StringReader(json));
+        JsonObject changes = reader.readObject();
+        reader.close();
+        return changes;
+    }
+
+    // tag::testSystemLoadPartialResults[]
+    @Test
+    @Order(11)
+    public void testSystemLoadPartialResults() throws Exception {
+        Response response = client.updateSystemLoad(0);
+        assertEquals(200, response.getStatus());
+        JsonReader reader = Json.createReader(
+            new StringReader(response.readEntity(String.class)));
+        JsonObject results = reader.readObject();
+        reader.close();
+        Set<String> reported = new HashSet<>();
+        for (String outcome : List.of("updated", "timedOut", "failed")) {
+            for (JsonString host : results.getJsonArray(outcome)
+                                          .getValuesAs(JsonString.class)) {
+                assertTrue(reported.add(host.getString()),
+                    host + " is reported twice in " + results);
+            }
+        }
+        Set<String> systems = new HashSet<>();
+        for (SystemData s : client.listContents()) {
+            systems.add(s.getHostname());
+        }
+        assertEquals(systems, reported);
+    }
+    // end::testSystemLoadPartialResults[]
+
+    // tag::testHealth[]
+    @Test
+    @Order(12)
+    public void testHealth() throws Exception {
+        client.updateSystemLoad(0);
+        for (SystemData s : client.listContents()) {
+            assertEquals("up", s.getHealth(), s.getHostname());
+        }
+    }
+    // end::testHealth[]
+
+    // tag::testLimits[]
+    @Test
+    @Order(13)
+    public void testLimits() throws Exception {
+        client.updateSystemLoad(0);
+        JsonReader reader = Json.createReader(new StringReader(
+            resteasyClient.target(URL + "/inventory/limits/stats")
+                          .request(MediaType.APPLICATION_JSON)
+                          .get(String.class)));
+        JsonObject limits = reader.readObject();
+        reader.close();
+        for (SystemData s : client.listContents()) {
+            if (!"up".equals(s.getHealth())) {
+                continue;
+            }
+            JsonObject limit = limits.getJsonObject(s.getHostname());
+            assertNotNull(limit, "no limit for " + s.getHostname());
+            assertTrue(limit.getInt("limit") >= 1, limit.toString());
+            assertEquals(0, limit.getInt("queued"), limit.toString());
+        }
+    }
+    // end::testLimits[]
+
+    // tag::testBulkheads[]
+    @Test
+    @Order(14)
+    public void testBulkheads() throws Exception {
+        client.updateSystemLoad(0);
+        JsonReader reader = Json.createReader(new StringReader(
+            resteasyClient.target(URL + "/inventory/tasks/stats")
+                          .request(MediaType.APPLICATION_JSON)
+                          .get(String.class)));
+        JsonObject bulkheads = reader.readObject().getJsonObject("bulkheads");
+        reader.close();
+        for (String name : List.of("registration", "refresh", "sampling")) {
+            JsonObject bulkhead = bulkheads.getJsonObject(name);
+            assertNotNull(bulkhead, "no " + name + " bulkhead");
+            assertEquals(0, bulkhead.getInt("rejected"), bulkhead.toString());
+        }
+    }
+    // end::testBulkheads[]
+
+    // tag::testRefreshJobs[]
+    @Test
+    @Order(15)
+    public void testRefreshJobs() throws Exception {
+        String id = startJob(60);
+        JsonObject job = job("GET", id);
+        assertEquals(client.listContents().size(), job.getInt("total"));
+        assertEquals(0, job.getInt("done"), job.toString());
+
+        job("DELETE", id);
+        job = poll(() -> job("GET", id), j -> j.getInt("pending") == 0);
+        assertEquals("cancelled", job.getString("state"), job.toString());
+        assertEquals(0, job.getInt("pending"), job.toString());
+        assertEquals(job.getInt("total"),
+                     job.getInt("cancelled") + job.getInt("failed"), job.toString());
+
+        try (Response missing = resteasyClient.target(URL + "/inventory/jobs/unknown")
+                                              .request(MediaType.APPLICATION_JSON)
+                                              .get()) {
+            assertEquals(404, missing.getStatus());
+        }
+    }
+    // end::testRefreshJobs[]
+
+    // tag::testCancelOneJob[]
+    @Test
+    @Order(16)
+    public void testCancelOneJob() throws Exception {
+        String first = startJob(60);
+        String second = startJob(60);
+        job("DELETE", first);
+        JsonObject cancelled =
+            poll(() -> job("GET", first), j -> j.getInt("pending") == 0);
+        assertEquals("cancelled", cancelled.getString("state"), cancelled.toString());
+        // the second job shares the fetches of the first but keeps them
+        JsonObject running = job("GET", second);
+        assertEquals(0, running.getInt("cancelled"), running.toString());
+        assertEquals(running.getInt("total") - running.getInt("failed"),
+                     running.getInt("pending"), running.toString());
+        job("DELETE", second);
+    }
+    // end::testCancelOneJob[]
+
+    // tag::testRemoveSystems[]
+    @Test
+    @Order(17)
+    public void testRemoveSystems() throws Exception {
+        client.addSystemClients(List.of("127.0.0.1")).close();
+        assertEquals(3, client.listContents().size());
+        Response response = resteasyClient.target(URL + "/inventory/systems")
+            .request(MediaType.APPLICATION_JSON)
+            .build("DELETE", Entity.json(List.of("127.0.0.1", "unknown.example.com")))
+            .invoke();
+        assertEquals(200, response.getStatus());
+        JsonReader reader = Json.createReader(
+            new StringReader(response.readEntity(String.class)));
+        JsonObject results = reader.readObject();
+        reader.close();
+        assertEquals("removed", results.getString("127.0.0.1"));
+        assertEquals("notFound", results.getString("unknown.example.com"));
+        assertEquals(2, client.listContents().size());
+        assertNull(client.getSystem("127.0.0.1"));
+    }
+    // end::testRemoveSystems[]
+
+    private String startJob(int after) {
+        try (Response response = client.updateMemoryUsed(after)) {
+            assertEquals(200, response.getStatus());
+            JsonReader reader = Json.createReader(
+                new StringReader(response.readEntity(String.class)));
+            String id = reader.readObject().getString("job");
+            reader.close();
+            return id;
+        }
+    }
+
+    private JsonObject job(String method, String id) {
+        String json = resteasyClient.target(URL + "/inventory/jobs/" + id)
+                                    .request(MediaType.APPLICATION_JSON)
+                                    .method(method, String.class);
+        JsonReader reader = Json.createReader(new StringReader(json));
+        JsonObject job = reader.readObject();
+        reader.close();
+        return job;
+    }
 }
@@ -0,0 +1,118 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package it.io.openliberty.guides.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.sse.InboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSource;
+
+public class InventoryEventsIT {
+
+    private static final String PORT = System.getProperty("http.port");
+    private static final String URL = "http://localhost:" + PORT + "/api";
+
+    private static ResteasyClient resteasyClient;
+
+    private static InventoryResourceClient client;
+
+    @BeforeAll
+    public static void setup() {
+        resteasyClient = (ResteasyClient) ResteasyClientBuilder.newBuilder().build();
+        ResteasyWebTarget target = resteasyClient.target(UriBuilder.fromPath(URL));
+        client = target.proxy(InventoryResourceClient.class);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        resteasyClient.close();
+    }
+
+    @Test
+    public void testAddRemoveEvents() throws Exception {
+        client.removeSystem("127.0.0.1").close();
+        BlockingQueue<InboundSseEvent> received = new LinkedBlockingQueue<>();
+        try (SseEventSource source = SseEventSource
+                 .target(resteasyClient.target(URL + "/inventory/systems/events"))
+                 .build()) {
+            source.register(received::add);
+            source.open();
+            awaitSubscribed();
+
+            client.addSystemClient("127.0.0.1").close();
+            JsonObject added = awaitEvent(received, "added", "127.0.0.1");
+            assertNotNull(added.getString("osName", null), added.toString());
+
+            client.removeSystem("127.0.0.1").close();
+            awaitEvent(received, "removed", "127.0.0.1");
+        }
+        assertEquals(0, eventStats().getJsonNumber("dropped").longValue());
+    }
+
+    private void awaitSubscribed() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (eventStats().getInt("subscribers") == 0) {
+            assertTrue(System.nanoTime() < deadline, "the event stream did not open");
+            Thread.sleep(100);
+        }
+    }
+
+    // skips the events of other systems and of other kinds
+    private JsonObject awaitEvent(BlockingQueue<InboundSseEvent> received,
+                                  String name, String hostname)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            InboundSseEvent event = received.poll(
+                deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            assertNotNull(event, "no " + name + " event for " + hostname);
+            if (!name.equals(event.getName())) {
+                continue;
+            }
+            JsonObject data = parse(event.readData());
+            if (hostname.equals(data.getString("hostname"))) {
+                return data;
+            }
+        }
+    }
+
+    private JsonObject eventStats() {
+        return parse(resteasyClient.target(URL + "/inventory/events/stats")
+                                   .request(MediaType.APPLICATION_JSON)
+                                   .get(String.class));
+    }
+
+    private JsonObject parse(String json) {
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            return reader.readObject();
+        }
+    }
+}
@@ -36,6 +36,14 @@ public interface InventoryResourceClient {
     List<SystemData> listContents();
     // end::listContents[]
 
+    // tag::listPage[]
+    @GET
+    @Path("/systems")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response listPage(@QueryParam("limit") Integer limit,
+                      @QueryParam("after") String after);
+    // end::listPage[]
+
     // tag::getSystem[]
     @GET
     @Path("/system/{hostname}")
@@ -43,6 +51,15 @@ public interface InventoryResourceClient {
     SystemData getSystem(@PathParam("hostname") String hostname);
     // end::getSystem[]
 
+    // tag::getSystemHistory[]
+    @GET
+    @Path("/system/{hostname}/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getSystemHistory(@PathParam("hostname") String hostname,
+                              @QueryParam("window") long window,
+                              @QueryParam("step") long step);
+    // end::getSystemHistory[]
+
     // tag::addSystemClient[]
     @POST
     @Path("/system/{hostname}")
@@ -51,6 +68,14 @@ public interface InventoryResourceClient {
     Response addSystemClient(@PathParam("hostname") String hostname);
     // end::addSystemClient[]
 
+    // tag::addSystemClients[]
+    @POST
+    @Path("/systems")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Response addSystemClients(List<String> hostnames);
+    // end::addSystemClients[]
+
     // tag::updateMemoryUsed[]
     @PUT
     @Path("/systems/memoryUsed")
@@ -0,0 +1,126 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package it.io.openliberty.guides.inventory.load;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A lightweight stand-in for the system service. It listens on every local
+ * address, so each loopback alias such as 127.1.0.1 looks like a separate
+ * system host to the inventory service. Every response is delayed by the
+ * base latency plus a random jitter, and the configured fraction of
+ * responses fail with a server error.
+ */
+public class FakeSystemServer {
+
+    private final long latency;
+    private final long jitter;
+    private final double errorRate;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeSystemServer(long latency, long jitter, double errorRate) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/system", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            pause();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath()
+                                  .substring("/api/system".length());
+            switch (path) {
+                case "/snapshot":
+                    respond(exchange, "application/json",
+                        "{\"osName\":\"Linux\",\"javaVersion\":\"21\","
+                        + "\"heapSize\":1073741824,\"memoryUsed\":" + memoryUsed()
+                        + ",\"systemLoad\":" + systemLoad() + "}");
+                    break;
+                case "/heapSize":
+                    respond(exchange, "text/plain", "1073741824");
+                    break;
+                case "/memoryUsed":
+                    respond(exchange, "text/plain", String.valueOf(memoryUsed()));
+                    break;
+                case "/systemLoad":
+                    respond(exchange, "text/plain", String.valueOf(systemLoad()));
+                    break;
+                case "/property/os.name":
+                    respond(exchange, "text/plain", "Linux");
+                    break;
+                case "/property/java.version":
+                    respond(exchange, "text/plain", "21");
+                    break;
+                default:
+                    exchange.sendResponseHeaders(404, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, String type, String body)
+        throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void pause() {
+        long delay = latency
+            + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long memoryUsed() {
+        return ThreadLocalRandom.current().nextLong(1L << 20, 1L << 30);
+    }
+
+    private static double systemLoad() {
+        return ThreadLocalRandom.current().nextDouble(0.01, 1.0);
+    }
+}
@@ -0,0 +1,149 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package it.io.openliberty.guides.inventory.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Drives the inventory service with a fixed number of concurrent clients
+ * while the system hosts are simulated by a FakeSystemServer on loopback
+ * aliases. The inventory service must be started with the load-test
+ * profile so that it calls the fake instead of the system service.
+ * Reports throughput and p50, p99 and p999 latency for registration,
+ * listing and refresh.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class InventoryLoadIT {
+
+    private static final String PORT = System.getProperty("http.port");
+    private static final String URL = "http://localhost:" + PORT + "/api/inventory";
+
+    private static final int FAKE_PORT = Integer.getInteger("fake.http.port", 9180);
+    private static final int HOSTS = Integer.getInteger("load.hosts", 200);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int LIST_REQUESTS = Integer.getInteger("load.listRequests", 2000);
+    private static final int REFRESH_REQUESTS =
+        Integer.getInteger("load.refreshRequests", 20);
+
+    private static FakeSystemServer fake;
+    private static HttpClient client;
+    private static ExecutorService workers;
+    private static List<String> hosts;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        fake = new FakeSystemServer(
+            Long.getLong("load.latency", 50),
+            Long.getLong("load.jitter", 50),
+            Double.parseDouble(System.getProperty("load.errorRate", "0.01")));
+        fake.start(FAKE_PORT);
+        workers = Executors.newFixedThreadPool(CONCURRENCY);
+        client = HttpClient.newBuilder()
+                           .executor(workers)
+                           .connectTimeout(Duration.ofSeconds(5))
+                           .build();
+        hosts = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            hosts.add("127.1." + (i / 250) + "." + (i % 250 + 1));
+        }
+    }
+
+    @AfterAll
+    public static void teardown() throws Exception {
+        // the coalesced and hedged call counts for comparing configurations
+        System.out.println("task stats: " + client.send(
+            HttpRequest.newBuilder(URI.create(URL + "/tasks/stats")).GET().build(),
+            HttpResponse.BodyHandlers.ofString()).body());
+        run("remove", HOSTS, i -> HttpRequest.newBuilder(
+            URI.create(URL + "/system/" + hosts.get(i))).DELETE().build());
+        workers.shutdownNow();
+        fake.stop();
+    }
+
+    @Test
+    @Order(1)
+    public void testRegistration() throws Exception {
+        LatencyRecorder recorder = run("register", HOSTS, i -> HttpRequest.newBuilder(
+            URI.create(URL + "/system/" + hosts.get(i)))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.noBody()).build());
+        assertTrue(recorder.getErrors() < HOSTS, recorder.report());
+    }
+
+    @Test
+    @Order(2)
+    public void testListing() throws Exception {
+        LatencyRecorder recorder = run("list", LIST_REQUESTS, i -> HttpRequest.newBuilder(
+            URI.create(URL + "/systems")).GET().build());
+        assertTrue(recorder.getErrors() == 0, recorder.report());
+    }
+
+    @Test
+    @Order(3)
+    public void testRefresh() throws Exception {
+        LatencyRecorder recorder = run("refresh", REFRESH_REQUESTS,
+            i -> HttpRequest.newBuilder(URI.create(URL + "/systems/systemLoad?after=0"))
+                            .PUT(HttpRequest.BodyPublishers.noBody()).build());
+        assertTrue(recorder.getErrors() == 0, recorder.report());
+    }
+
+    // sends the requests from CONCURRENCY threads and prints the report
+    private static LatencyRecorder run(String operation, int requests,
+                                       IntFunction<HttpRequest> request)
+        throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder(operation, requests);
+        ExecutorService senders = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> sent = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                HttpRequest r = request.apply(i);
+                sent.add(senders.submit(() -> {
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(r, HttpResponse.BodyHandlers.discarding())
+                                   .statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    recorder.record(start, System.nanoTime(), ok);
+                }));
+            }
+            for (Future<?> f : sent) {
+                f.get();
+            }
+        } finally {
+            senders.shutdown();
+        }
+        System.out.println(recorder.report());
+        return recorder;
+    }
+}
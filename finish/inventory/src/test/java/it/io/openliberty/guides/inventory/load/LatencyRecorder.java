@@ -0,0 +1,71 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package it.io.openliberty.guides.inventory.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the latency of every request of one operation and reports the
+ * throughput and the latency percentiles.
+ */
+public class LatencyRecorder {
+
+    private final String operation;
+    private final long[] latencies;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicLong first = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong last = new AtomicLong(Long.MIN_VALUE);
+
+    public LatencyRecorder(String operation, int capacity) {
+        this.operation = operation;
+        this.latencies = new long[capacity];
+    }
+
+    public void record(long start, long end, boolean ok) {
+        int i = count.getAndIncrement();
+        if (i < latencies.length) {
+            latencies[i] = end - start;
+        }
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+        first.accumulateAndGet(start, Math::min);
+        last.accumulateAndGet(end, Math::max);
+    }
+
+    public int getErrors() {
+        return errors.get();
+    }
+
+    public String report() {
+        int n = Math.min(count.get(), latencies.length);
+        if (n == 0) {
+            return String.format("%-12s no requests", operation);
+        }
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        double seconds = (last.get() - first.get()) / 1e9;
+        return String.format(
+            "%-12s requests=%d errors=%d throughput=%.1f/s "
+            + "p50=%.1fms p99=%.1fms p999=%.1fms",
+            operation, n, errors.get(), n / seconds,
+            millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 0.999));
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        int i = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
@@ -13,10 +13,12 @@ package io.openliberty.guides.system;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
 import java.util.Random;
 
 import com.sun.management.OperatingSystemMXBean;
 
+import io.openliberty.guides.system.models.SystemSnapshot;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -65,6 +67,19 @@ public class SystemResource {
         return OS_MEAN.getCpuLoad();
     }
 
+    @GET
+    @Path("/snapshot")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SystemSnapshot getSnapshot() {
+        doSomething();
+        MemoryUsage heap = MEM_BEAN.getHeapMemoryUsage();
+        return new SystemSnapshot(System.getProperty("os.name"),
+                                  System.getProperty("java.version"),
+                                  heap.getMax(),
+                                  heap.getUsed(),
+                                  OS_MEAN.getCpuLoad());
+    }
+
     private void doSomething() {
         try {
             Thread.sleep(RANDOM.nextInt(1000));
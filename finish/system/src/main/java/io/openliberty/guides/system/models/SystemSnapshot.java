@@ -0,0 +1,74 @@
+// tag::copyright[]
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+// end::copyright[]
+package io.openliberty.guides.system.models;
+
+public class SystemSnapshot {
+
+    private String osName;
+    private String javaVersion;
+    private Long heapSize;
+    private Long memoryUsed;
+    private Double systemLoad;
+
+    public SystemSnapshot() {
+    }
+
+    public SystemSnapshot(String osName, String javaVersion, Long heapSize,
+                          Long memoryUsed, Double systemLoad) {
+        this.osName = osName;
+        this.javaVersion = javaVersion;
+        this.heapSize = heapSize;
+        this.memoryUsed = memoryUsed;
+        this.systemLoad = systemLoad;
+    }
+
+    public String getOsName() {
+        return this.osName;
+    }
+
+    public void setOsName(String osName) {
+        this.osName = osName;
+    }
+
+    public String getJavaVersion() {
+        return this.javaVersion;
+    }
+
+    public void setJavaVersion(String javaVersion) {
+        this.javaVersion = javaVersion;
+    }
+
+    public Long getHeapSize() {
+        return this.heapSize;
+    }
+
+    public void setHeapSize(Long heapSize) {
+        this.heapSize = heapSize;
+    }
+
+    public Long getMemoryUsed() {
+        return this.memoryUsed;
+    }
+
+    public void setMemoryUsed(Long memoryUsed) {
+        this.memoryUsed = memoryUsed;
+    }
+
+    public Double getSystemLoad() {
+        return this.systemLoad;
+    }
+
+    public void setSystemLoad(Double systemLoad) {
+        this.systemLoad = systemLoad;
+    }
+
+}
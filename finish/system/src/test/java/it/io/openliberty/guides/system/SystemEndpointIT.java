@@ -14,6 +14,7 @@ package it.io.openliberty.guides.system;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringReader;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 
@@ -21,6 +22,9 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.WebTarget;
@@ -87,4 +91,24 @@ public class SystemEndpointIT {
         assertTrue(systemLoad >= 0.0);
         response.close();
     }
+
+    @Test
+    public void testGetSnapshot() {
+        WebTarget target = client.target(URL + "/snapshot");
+        Response response = target.request().get();
+        assertEquals(200, response.getStatus(),
+                "Incorrect response code from " + target.getUri().getPath());
+        JsonReader reader = Json.createReader(
+            new StringReader(response.readEntity(String.class)));
+        JsonObject snapshot = reader.readObject();
+        reader.close();
+        assertEquals(System.getProperty("os.name"), snapshot.getString("osName"));
+        assertEquals(System.getProperty("java.version"),
+            snapshot.getString("javaVersion"));
+        assertEquals(MEM_BEAN.getHeapMemoryUsage().getMax(),
+            snapshot.getJsonNumber("heapSize").longValue());
+        assertTrue(snapshot.getJsonNumber("memoryUsed").longValue() > 0);
+        assertTrue(snapshot.getJsonNumber("systemLoad").doubleValue() >= 0.0);
+        response.close();
+    }
 }